@@ -0,0 +1,83 @@
+package com.bloomkart.config;
+
+import com.bloomkart.entity.Product;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Caffeine caches for the storefront catalog reads. Caffeine evicts with W-TinyLFU, so a burst of
+ * one-off product lookups can't flush the popular ones. Stats are recorded so actuator publishes
+ * cache.gets / cache.puts / cache.evictions per cache.
+ */
+@Configuration
+// Run the cache check before the transaction interceptor so hits never open a transaction
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String FEATURED_PRODUCTS = "featuredProducts";
+    public static final String CATEGORIES = "categories";
+    public static final String IMAGE_VARIANTS = "imageVariants";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.products.ttl:10m}") Duration productsTtl,
+            @Value("${cache.products.max-weight-bytes:16777216}") long productsMaxWeight,
+            @Value("${cache.featured-products.ttl:5m}") Duration featuredTtl,
+            @Value("${cache.categories.ttl:30m}") Duration categoriesTtl,
+            @Value("${cache.image-variants.ttl:10m}") Duration imageVariantsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+
+        // Products are bounded by their approximate footprint rather than their count
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumWeight(productsMaxWeight)
+                .weigher((Object key, Object value) -> estimateSize((Product) value))
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(FEATURED_PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(featuredTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(categoriesTtl)
+                .recordStats()
+                .build());
+        // Variant lists by original file name; the TTL picks up variants generated on other nodes
+        cacheManager.registerCustomCache(IMAGE_VARIANTS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(imageVariantsTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    private static int estimateSize(Product product) {
+        int size = 256;
+        size += 2 * length(product.getName());
+        size += 2 * length(product.getDescription());
+        size += 2 * length(product.getCategory());
+        size += 2 * length(product.getMainImage());
+        if (product.getImages() != null) {
+            for (String image : product.getImages()) {
+                size += 48 + 2 * length(image);
+            }
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.bloomkart.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the shared counter backend, for tests and single-node setups.
+ */
+public class EmbeddedSharedCounterClient implements SharedCounterClient {
+
+    private final Map<String, long[]> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, Long> addAndGet(Map<String, Long> deltas, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Map<String, Long> totals = new HashMap<>();
+        deltas.forEach((key, delta) -> {
+            // [value, expiresAt]; an expired counter starts again from zero, as in Redis
+            long[] counter = counters.compute(key, (k, current) -> {
+                long value = current == null || current[1] <= now ? 0 : current[0];
+                return new long[]{value + delta, now + ttl.toMillis()};
+            });
+            totals.put(key, counter[0]);
+        });
+        counters.values().removeIf(counter -> counter[1] <= now);
+        return totals;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bloomkart.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Workers calling the payment gateway for orders queued in the payment outbox
+    @Bean
+    public ThreadPoolTaskExecutor paymentOutboxExecutor(@Value("${payment.outbox.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 50);
+        executor.setThreadNamePrefix("payment-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Runs the independent sections of the admin dashboards side by side
+    @Bean
+    public ThreadPoolTaskExecutor dashboardExecutor(@Value("${dashboard.workers:8}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("dashboard-");
+        // When saturated a section is rejected and reported as not loaded, keeping the request within its deadline
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // Single thread sending the mail queue; one queued drain is enough to pick up new messages
+    @Bean
+    public ThreadPoolTaskExecutor mailSenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("mail-sender-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Resizes uploaded images; when the queue is full the image is served at full size until a backfill
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(@Value("${image.variants.workers:2}") int workers,
+                                                       @Value("${image.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Streams the images of one product upload to disk side by side; when saturated the request thread copies
+    @Bean
+    public ThreadPoolTaskExecutor uploadExecutor(@Value("${uploads.workers:8}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bloomkart.config;
+
+import com.bloomkart.service.IdempotencyService;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Keeps the raw body of requests sent with an Idempotency-Key, so IdempotencyService can fingerprint
+ * exactly what the client sent rather than the object it was bound to.
+ */
+@ControllerAdvice
+public class IdempotentRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        if (inputMessage.getHeaders().getFirst(IdempotencyService.HEADER) == null) {
+            return inputMessage;
+        }
+        byte[] body = StreamUtils.copyToByteArray(inputMessage.getBody());
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(IdempotencyService.RAW_BODY_ATTRIBUTE, body, RequestAttributes.SCOPE_REQUEST);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+}
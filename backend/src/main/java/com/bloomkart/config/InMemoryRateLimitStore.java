@@ -0,0 +1,158 @@
+package com.bloomkart.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets held by this node. Each bucket is a single AtomicLong packing the remaining
+ * milli-tokens (high 24 bits, signed) with the time of the last refill (low 40 bits, ms since startup),
+ * so a take is one CAS and an idle bucket costs one map entry. The balance goes negative when tokens
+ * spent on other nodes are debited, so every node refills at the full rate and the cluster still
+ * stays within it.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    static final long MILLI_TOKENS = 1000;
+    // The balance ranges from -capacity to +capacity within the 24 signed bits
+    static final int MAX_CAPACITY = (int) (((1L << 23) - 1) / MILLI_TOKENS);
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final int maxBuckets;
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    public InMemoryRateLimitStore(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    @Override
+    public long tryConsume(String key, int capacity, int refillPerMinute) {
+        long now = now();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                sweep();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, refillPerMinute, now));
+        }
+
+        while (true) {
+            long current = bucket.state.get();
+            long refilled = bucket.refill(current, now);
+            long tokens = refilled >> TIME_BITS;
+            if (tokens < MILLI_TOKENS) {
+                long last = refilled & TIME_MASK;
+                long waitMillis = ((MILLI_TOKENS - tokens) * 60 + refillPerMinute - 1) / refillPerMinute - (now - last);
+                return Math.max(1, waitMillis);
+            }
+            if (bucket.state.compareAndSet(current, pack(tokens - MILLI_TOKENS, refilled & TIME_MASK))) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return buckets.size();
+    }
+
+    public boolean contains(String key) {
+        return buckets.containsKey(key);
+    }
+
+    /**
+     * Removes tokens spent elsewhere (e.g. on other nodes) from an existing bucket. An empty bucket goes
+     * into debt, down to minus its capacity, so that spending still delays the next local take.
+     */
+    public void debit(String key, long tokens) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null || tokens <= 0) {
+            return;
+        }
+        long now = now();
+        while (true) {
+            long current = bucket.state.get();
+            long refilled = bucket.refill(current, now);
+            long remaining = Math.max(-bucket.capacity, (refilled >> TIME_BITS) - tokens * MILLI_TOKENS);
+            if (bucket.state.compareAndSet(current, pack(remaining, refilled & TIME_MASK))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled to capacity, which is lossless since a new bucket starts full.
+     * If the map is still over its cap, the least recently used buckets go as well.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = now();
+            buckets.entrySet().removeIf(entry -> entry.getValue().isFull(now));
+
+            int excess = buckets.size() - maxBuckets * 9 / 10;
+            if (excess > 0) {
+                long[] lastSeen = buckets.values().stream()
+                        .mapToLong(bucket -> bucket.state.get() & TIME_MASK)
+                        .sorted()
+                        .toArray();
+                long cutoff = lastSeen[Math.min(excess, lastSeen.length) - 1];
+                buckets.values().removeIf(bucket -> (bucket.state.get() & TIME_MASK) <= cutoff);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - epoch;
+    }
+
+    // Shifted back out with >>, which keeps the sign of a negative balance
+    private static long pack(long milliTokens, long time) {
+        return (milliTokens << TIME_BITS) | (time & TIME_MASK);
+    }
+
+    private static class Bucket {
+        final AtomicLong state;
+        final long capacity;
+        final int refillPerMinute;
+
+        Bucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity * MILLI_TOKENS;
+            this.refillPerMinute = refillPerMinute;
+            this.state = new AtomicLong(pack(this.capacity, now));
+        }
+
+        // Tokens accrue at refillPerMinute / 60 milli-tokens per ms; the clock only advances
+        // by the time actually converted so slow refill rates don't lose fractions
+        long refill(long current, long now) {
+            long tokens = current >> TIME_BITS;
+            long last = current & TIME_MASK;
+            long added = Math.max(0, now - last) * refillPerMinute / 60;
+            if (tokens + added >= capacity) {
+                return pack(capacity, now);
+            }
+            if (added == 0) {
+                return current;
+            }
+            return pack(tokens + added, last + added * 60 / refillPerMinute);
+        }
+
+        boolean isFull(long now) {
+            return (refill(state.get(), now) >> TIME_BITS) >= capacity;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bloomkart.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(RateLimitProperties properties) {
+        return new InMemoryRateLimitStore(properties.getMaxBuckets());
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "shared")
+    static class SharedStoreConfig {
+
+        @Bean
+        public RateLimitStore sharedRateLimitStore(RateLimitProperties properties, SharedCounterClient client,
+                                                   @Value("${rate-limit.shared.counter-ttl-ms:600000}") long counterTtlMs) {
+            return new SharedRateLimitStore(new InMemoryRateLimitStore(properties.getMaxBuckets()), client,
+                    Duration.ofMillis(counterTtlMs));
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "rate-limit.shared.backend", havingValue = "redis", matchIfMissing = true)
+        public SharedCounterClient redisSharedCounterClient(StringRedisTemplate redisTemplate) {
+            return new RedisSharedCounterClient(redisTemplate);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "rate-limit.shared.backend", havingValue = "embedded")
+        public SharedCounterClient embeddedSharedCounterClient() {
+            return new EmbeddedSharedCounterClient();
+        }
+    }
+}
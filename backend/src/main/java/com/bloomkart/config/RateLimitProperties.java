@@ -0,0 +1,119 @@
+package com.bloomkart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit policies, matched in order against the request path (including the /api context path).
+ * The first matching policy applies; requests matching none are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on tracked buckets before idle ones are evicted
+    private int maxBuckets = 100_000;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+
+    public enum KeyType {
+        IP, PRINCIPAL
+    }
+
+    public static class Policy {
+
+        private String name;
+
+        // Ant-style path patterns, e.g. /api/products/**
+        private List<String> patterns = new ArrayList<>();
+
+        // HTTP methods the policy applies to; empty means all
+        private List<String> methods = new ArrayList<>();
+
+        // Burst size: the most requests allowed back to back
+        private int capacity;
+
+        // Sustained rate the bucket refills at
+        private int refillPerMinute;
+
+        // PRINCIPAL keys authenticated callers by user and falls back to the IP for anonymous ones
+        private KeyType key = KeyType.IP;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPatterns() {
+            return patterns;
+        }
+
+        public void setPatterns(List<String> patterns) {
+            this.patterns = patterns;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getRefillPerMinute() {
+            return refillPerMinute;
+        }
+
+        public void setRefillPerMinute(int refillPerMinute) {
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bloomkart.config;
+
+/**
+ * Token bucket storage behind RateLimitingFilter. Selected with rate-limit.store:
+ * "memory" keeps buckets per node, "shared" also syncs consumption across nodes.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket for the key, creating it full if needed.
+     * Returns 0 when the request is allowed, otherwise the milliseconds until a token is available.
+     */
+    long tryConsume(String key, int capacity, int refillPerMinute);
+
+    /**
+     * Number of buckets currently tracked.
+     */
+    int size();
+
+    /**
+     * Evicts idle buckets so memory stays bounded.
+     */
+    void sweep();
+}
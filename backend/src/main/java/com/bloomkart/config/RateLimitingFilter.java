@@ -1,5 +1,9 @@
 package com.bloomkart.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,53 +11,94 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 
 import java.io.IOException;
-import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class RateLimitingFilter implements Filter {
-    private static final int MAX_REQUESTS_PER_MINUTE = 5;
-    private static final long WINDOW_MILLIS = 60_000;
-    private final Map<String, RequestInfo> requestCounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> rejections = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            if (policy.getCapacity() < 1 || policy.getCapacity() > InMemoryRateLimitStore.MAX_CAPACITY
+                    || policy.getRefillPerMinute() < 1) {
+                throw new IllegalStateException("Invalid rate limit policy: " + policy.getName());
+            }
+            rejections.put(policy.getName(), Counter.builder("ratelimit.rejections")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("policy", policy.getName())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("ratelimit.buckets", rateLimitStore, RateLimitStore::size)
+                .description("Token buckets currently tracked")
+                .register(meterRegistry);
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         HttpServletRequest req = (HttpServletRequest) request;
-        String path = req.getRequestURI();
-        if (path.equals("/api/auth/login") || path.equals("/api/auth/register")) {
-            String ip = request.getRemoteAddr();
-            long now = Instant.now().toEpochMilli();
-            RequestInfo info = requestCounts.computeIfAbsent(ip, k -> new RequestInfo(0, now));
-            synchronized (info) {
-                if (now - info.windowStart > WINDOW_MILLIS) {
-                    info.windowStart = now;
-                    info.count = 1;
-                } else {
-                    info.count++;
-                }
-                if (info.count > MAX_REQUESTS_PER_MINUTE) {
-                    HttpServletResponse resp = (HttpServletResponse) response;
-                    resp.setStatus(429);
-                    resp.setContentType("application/json");
-                    resp.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
-                    return;
-                }
+        RateLimitProperties.Policy policy = properties.isEnabled() ? findPolicy(req) : null;
+        if (policy != null) {
+            String key = policy.getName() + "|" + clientKey(req, policy);
+            long waitMillis = rateLimitStore.tryConsume(key, policy.getCapacity(), policy.getRefillPerMinute());
+            if (waitMillis > 0) {
+                rejections.get(policy.getName()).increment();
+                HttpServletResponse resp = (HttpServletResponse) response;
+                resp.setStatus(429);
+                resp.setHeader("Retry-After", String.valueOf((waitMillis + 999) / 1000));
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+                return;
             }
         }
         chain.doFilter(request, response);
     }
 
-    private static class RequestInfo {
-        int count;
-        long windowStart;
-        RequestInfo(int count, long windowStart) {
-            this.count = count;
-            this.windowStart = windowStart;
+    private RateLimitProperties.Policy findPolicy(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            if (!policy.getMethods().isEmpty() && !policy.getMethods().contains(request.getMethod())) {
+                continue;
+            }
+            for (String pattern : policy.getPatterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, RateLimitProperties.Policy policy) {
+        if (policy.getKey() == RateLimitProperties.KeyType.PRINCIPAL) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
         }
+        // The client address as resolved from X-Forwarded-For of a trusted proxy (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.bloomkart.config;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared counters in Redis: one pipelined INCRBY + PEXPIRE per key, sent as a single batch.
+ */
+public class RedisSharedCounterClient implements SharedCounterClient {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisSharedCounterClient(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Map<String, Long> addAndGet(Map<String, Long> deltas, Duration ttl) {
+        List<String> keys = new ArrayList<>(deltas.keySet());
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String key : keys) {
+                redis.incrBy(KEY_PREFIX + key, deltas.get(key));
+                redis.pExpire(KEY_PREFIX + key, ttl.toMillis());
+            }
+            return null;
+        });
+
+        Map<String, Long> totals = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            totals.put(keys.get(i), (Long) results.get(i * 2));
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bloomkart.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Cluster-wide counters used by SharedRateLimitStore.
+ */
+public interface SharedCounterClient {
+
+    /**
+     * Adds each delta to its counter, refreshes the counter's TTL and returns the new totals,
+     * all in one round trip.
+     */
+    Map<String, Long> addAndGet(Map<String, Long> deltas, Duration ttl);
+}
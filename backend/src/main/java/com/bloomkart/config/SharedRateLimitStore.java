@@ -0,0 +1,107 @@
+package com.bloomkart.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cluster-wide limits without a remote call per request. Every node decides locally against
+ * its own token buckets and counts what it allowed; a background sync pushes those counts to
+ * shared counters in one batch and debits the local buckets by what the other nodes spent
+ * since the previous sync. Limits can overshoot by at most one sync interval of traffic.
+ */
+public class SharedRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedRateLimitStore.class);
+
+    private final InMemoryRateLimitStore local;
+    private final SharedCounterClient client;
+    private final Duration counterTtl;
+
+    // Tokens taken on this node since the last sync
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Shared total per key as of the last sync
+    private final Map<String, Long> lastTotals = new ConcurrentHashMap<>();
+
+    private boolean syncFailing = false;
+
+    public SharedRateLimitStore(InMemoryRateLimitStore local, SharedCounterClient client, Duration counterTtl) {
+        this.local = local;
+        this.client = client;
+        this.counterTtl = counterTtl;
+    }
+
+    @Override
+    public long tryConsume(String key, int capacity, int refillPerMinute) {
+        long waitMillis = local.tryConsume(key, capacity, refillPerMinute);
+        if (waitMillis == 0) {
+            pending.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+        return waitMillis;
+    }
+
+    @Override
+    public int size() {
+        return local.size();
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.shared.sync-interval-ms:250}")
+    public synchronized void sync() {
+        Map<String, Long> deltas = new HashMap<>();
+        pending.forEach((key, adder) -> {
+            long taken = adder.sumThenReset();
+            if (taken > 0) {
+                deltas.put(key, taken);
+            } else {
+                pending.remove(key, adder);
+            }
+        });
+        // Keys this node is still tracking are read back too, so it sees other nodes' usage
+        // even while it isn't taking tokens itself
+        lastTotals.keySet().forEach(key -> deltas.putIfAbsent(key, 0L));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> totals;
+        try {
+            totals = client.addAndGet(deltas, counterTtl);
+        } catch (RuntimeException e) {
+            // Keep limiting per node until the shared store is back; these deltas are dropped
+            if (!syncFailing) {
+                logger.warn("Rate limit sync failed, falling back to per-node limits: {}", e.getMessage());
+                syncFailing = true;
+            }
+            return;
+        }
+        if (syncFailing) {
+            logger.info("Rate limit sync recovered");
+            syncFailing = false;
+        }
+
+        totals.forEach((key, total) -> {
+            long own = deltas.get(key);
+            Long previous = lastTotals.put(key, total);
+            // The first sync of a key has no baseline, so only later syncs see other nodes' usage;
+            // a counter that expired and restarted reads lower than before and is ignored
+            long others = previous == null ? 0 : total - previous - own;
+            if (others > 0) {
+                local.debit(key, others);
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        local.sweep();
+        lastTotals.keySet().removeIf(key -> !local.contains(key) && !pending.containsKey(key));
+    }
+}
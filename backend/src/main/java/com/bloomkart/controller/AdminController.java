@@ -1,5 +1,9 @@
 package com.bloomkart.controller;
 
+import com.bloomkart.dto.CursorSlice;
+import com.bloomkart.dto.PageCursor;
+import com.bloomkart.dto.ProductCard;
+import com.bloomkart.dto.ProductDetail;
 import com.bloomkart.entity.Order;
 import com.bloomkart.entity.Product;
 import com.bloomkart.entity.User;
@@ -10,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -47,18 +52,18 @@ public class AdminController {
 
     // Product Management
     @GetMapping("/products")
-    public ResponseEntity<Page<Product>> getProducts(
+    public ResponseEntity<Page<ProductCard>> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getAllProducts(pageable);
+        Page<ProductCard> products = productService.getAllProducts(pageable);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/products/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductDetail> getProduct(@PathVariable Long id) {
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(new ProductDetail(product));
     }
 
     @PostMapping("/products")
@@ -118,10 +123,15 @@ public class AdminController {
 
     // Order Management
     @GetMapping("/orders")
-    public ResponseEntity<Page<Order>> getOrders(
+    public ResponseEntity<?> getOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Order.OrderStatus status) {
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<Order> orders = orderService.getOrdersAfter(status, PageCursor.decode(after), size);
+            return ResponseEntity.ok(CursorSlice.of(orders, order -> PageCursor.of(order.getCreatedAt(), order.getId())));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Order> orders = status != null ? 
             orderService.getOrdersByStatus(status, pageable) : 
@@ -129,6 +139,12 @@ public class AdminController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/orders/{id}")
+    public ResponseEntity<Order> getOrder(@PathVariable Long id) {
+        Order order = orderService.getOrderDetails(id);
+        return ResponseEntity.ok(order);
+    }
+
     @PutMapping("/orders/{id}/status")
     public ResponseEntity<Order> updateOrderStatus(
             @PathVariable Long id,
@@ -140,9 +156,14 @@ public class AdminController {
 
     // User Management
     @GetMapping("/users")
-    public ResponseEntity<Page<User>> getUsers(
+    public ResponseEntity<?> getUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<User> users = userService.getUsersAfter(PageCursor.decode(after), size);
+            return ResponseEntity.ok(CursorSlice.of(users, user -> PageCursor.of(user.getCreatedAt(), user.getId())));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<User> users = userService.getAllUsers(pageable);
         return ResponseEntity.ok(users);
@@ -1,73 +1,216 @@
 package com.bloomkart.controller;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import com.bloomkart.service.HotImageCache;
+import com.bloomkart.service.UploadStore;
+import com.bloomkart.service.UploadedFileService;
+import com.bloomkart.service.UploadedFileService.FileMetadata;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.MalformedURLException;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @RestController
-@RequestMapping("/api/uploads")
+// Under the /api context path this serves /api/uploads/**, the URLs stored in Product.images
+@RequestMapping("/uploads")
 public class FileController {
 
+    // Request attributes through which Tomcat takes over the body and sends it with sendfile(2)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    @Autowired
+    private UploadedFileService uploadedFileService;
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    /**
+     * Serves an upload with a strong ETag, conditional requests and single byte ranges. Hot files are
+     * written from the off-heap cache; others are copied by the kernel (sendfile, or
+     * FileChannel.transferTo) without passing through the heap.
+     * w: display width in pixels; the narrowest generated variant at least that wide is served.
+     * Returns null once the response has been written directly.
+     */
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<?> getFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get("uploads").resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists()) {
-                // Return JSON error, not PDF
-                return ResponseEntity.status(404)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(Map.of("error", "File not found"));
-            }
+    public ResponseEntity<?> getFile(@PathVariable String filename, @RequestParam(required = false) Integer w,
+                                     HttpServletRequest request, HttpServletResponse response) {
+        Optional<FileMetadata> resolved = uploadedFileService.resolve(filename, w);
+        if (resolved.isEmpty()) {
+            // Return JSON error, not PDF
+            return ResponseEntity.status(404)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "File not found"));
+        }
+        FileMetadata file = resolved.get();
+        CacheControl cacheControl = file.isImmutable() ? IMMUTABLE : REVALIDATE;
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(file.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
 
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(file.getEtag()))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
             }
+        }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+        response.setStatus(partial ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        response.setContentType(file.getContentType());
+        response.setHeader(HttpHeaders.ETAG, file.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"" + file.getPath().getFileName() + "\"");
+        if (partial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentLengthLong(end - start + 1);
 
-        } catch (MalformedURLException ex) {
-            return ResponseEntity.badRequest()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Map.of("error", "Invalid file path"));
-        } catch (Exception ex) {
-            return ResponseEntity.status(500)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Map.of("error", "Could not serve file"));
+        if (!"HEAD".equals(request.getMethod()) && size > 0) {
+            try {
+                Optional<ByteBuffer> cached = hotImageCache.get(file);
+                if (cached.isPresent()) {
+                    write(cached.get(), start, end + 1, response);
+                } else {
+                    transfer(file.getPath(), start, end + 1, request, response);
+                }
+            } catch (IOException ex) {
+                // Client went away mid-transfer; nothing left to report to it
+            }
         }
+        return null;
     }
 
     @GetMapping
     public ResponseEntity<List<String>> listFiles() {
         try {
-            Path uploadsDir = Paths.get("uploads");
-            if (!Files.exists(uploadsDir)) {
-                return ResponseEntity.ok(Collections.emptyList());
-            }
-            List<String> files = Files.list(uploadsDir)
-                .filter(Files::isRegularFile)
-                .map(path -> path.getFileName().toString())
-                .collect(Collectors.toList());
-            return ResponseEntity.ok(files);
+            return ResponseEntity.ok(uploadStore.listFileNames());
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body(Collections.singletonList("An unexpected error occurred"));
         }
     }
-} 
\ No newline at end of file
+
+    // Writes from an in-memory copy of a hot file
+    private static void write(ByteBuffer content, long start, long endExclusive,
+                              HttpServletResponse response) throws IOException {
+        content.limit((int) endExclusive).position((int) start);
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        while (content.hasRemaining()) {
+            out.write(content);
+        }
+    }
+
+    private static void transfer(Path path, long start, long endExclusive, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, endExclusive);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < endExclusive) {
+                long sent = channel.transferTo(position, endExclusive - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single "bytes=" range. Returns {start, end} inclusive, an empty array to serve the
+     * whole file (multiple or malformed ranges), or null when the range lies outside the file.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(size - 1, Long.parseLong(spec.substring(dash + 1)));
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -1,42 +1,33 @@
 package com.bloomkart.controller;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.bloomkart.service.ImageVariantService;
+import com.bloomkart.service.UploadStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
-
 @RestController
 @RequestMapping("/upload")
 @CrossOrigin(origins = "*")
 public class FileUploadController {
 
-    @Value("${file.upload-dir}")
-    private String uploadPath;
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
 
     @PostMapping("/image")
     public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadDir = Paths.get(uploadPath);
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-
-            // Generate unique filename
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path filePath = Paths.get(uploadPath, fileName);
-
-            // Save file
-            Files.copy(file.getInputStream(), filePath);
+            // Stored once per content; an identical upload returns the existing URL
+            String imageUrl = uploadStore.store(file);
 
-            return ResponseEntity.ok("/uploads/" + fileName);
-        } catch (IOException e) {
+            // Resized copies are generated in the background
+            imageVariantService.enqueue(imageUrl);
+            return ResponseEntity.ok(imageUrl);
+        } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body("Failed to upload file: " + e.getMessage());
         }
     }
@@ -1,11 +1,15 @@
 package com.bloomkart.controller;
 
+import com.bloomkart.dto.CursorSlice;
+import com.bloomkart.dto.PageCursor;
+import com.bloomkart.dto.ProductCard;
 import com.bloomkart.entity.Product;
 import com.bloomkart.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -23,14 +27,28 @@ public class InventoryController {
     private ProductService productService;
 
     @GetMapping
-    public ResponseEntity<Page<Product>> getInventory(
+    public ResponseEntity<?> getInventory(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            PageCursor cursor = PageCursor.decode(after);
+            Slice<ProductCard> slice;
+            if (category != null && !category.isEmpty()) {
+                slice = productService.getProductsByCategoryAfter(category, cursor, size);
+            } else if (search != null && !search.isEmpty()) {
+                slice = productService.searchProductsAfter(search, cursor, size);
+            } else {
+                slice = productService.getProductsAfter(cursor, size);
+            }
+            return ResponseEntity.ok(CursorSlice.of(slice, product -> PageCursor.of(product.getId())));
+        }
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products;
+        Page<ProductCard> products;
         
         if (category != null && !category.isEmpty()) {
             products = productService.getProductsByCategory(category, pageable);
@@ -71,30 +89,28 @@ public class InventoryController {
             return ResponseEntity.badRequest().build();
         }
         
-        Product product = productService.getProductById(id);
-        product.setStockQuantity(newQuantity);
-        Product updatedProduct = productService.updateProduct(id, product, null);
+        Product updatedProduct = productService.setStock(id, newQuantity);
         
         return ResponseEntity.ok(updatedProduct);
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<Page<Product>> getLowStockProducts(
+    public ResponseEntity<Page<ProductCard>> getLowStockProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> lowStockProducts = productService.getLowStockProducts(pageable);
+        Page<ProductCard> lowStockProducts = productService.getLowStockProducts(pageable);
         return ResponseEntity.ok(lowStockProducts);
     }
 
     @GetMapping("/out-of-stock")
-    public ResponseEntity<Page<Product>> getOutOfStockProducts(
+    public ResponseEntity<Page<ProductCard>> getOutOfStockProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> outOfStockProducts = productService.getOutOfStockProducts(pageable);
+        Page<ProductCard> outOfStockProducts = productService.getOutOfStockProducts(pageable);
         return ResponseEntity.ok(outOfStockProducts);
     }
 } 
\ No newline at end of file
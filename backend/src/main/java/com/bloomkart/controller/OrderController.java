@@ -1,12 +1,18 @@
 package com.bloomkart.controller;
 
+import com.bloomkart.dto.CursorSlice;
+import com.bloomkart.dto.OrderSummary;
+import com.bloomkart.dto.PageCursor;
 import com.bloomkart.entity.Order;
 import com.bloomkart.entity.User;
 import com.bloomkart.service.AuthService;
+import com.bloomkart.service.IdempotencyService;
 import com.bloomkart.service.OrderService;
 import com.bloomkart.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,23 +34,27 @@ public class OrderController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
-        Order createdOrder = orderService.createOrder(order);
-        
-        // Create Razorpay order
-        String paymentOrderId = paymentService.createPaymentOrder(createdOrder);
-        createdOrder.setPaymentId(paymentOrderId);
-        orderService.updatePaymentStatus(createdOrder.getId(), Order.PaymentStatus.PENDING, paymentOrderId);
-        
-        return ResponseEntity.ok(createdOrder);
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody Order order,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        // The Razorpay order is created in the background; poll /orders/{id}/payment-status for its paymentId
+        return idempotencyService.execute(idempotencyKey, "POST /orders", request,
+                () -> ResponseEntity.ok(orderService.createOrder(order)));
     }
 
+    // Order history, newest first; pass nextCursor back as "after" for the next page
     @GetMapping
-    public ResponseEntity<List<Order>> getUserOrders() {
+    public ResponseEntity<CursorSlice<OrderSummary>> getUserOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
         User currentUser = authService.getCurrentUser();
-        List<Order> orders = orderService.getUserOrders(currentUser);
-        return ResponseEntity.ok(orders);
+        Slice<OrderSummary> orders = orderService.getUserOrderHistory(currentUser, PageCursor.decode(after), size);
+        return ResponseEntity.ok(CursorSlice.of(orders, order -> PageCursor.of(order.getCreatedAt(), order.getId())));
     }
 
     @GetMapping("/{id}")
@@ -55,22 +65,27 @@ public class OrderController {
     }
 
     @PostMapping("/verify-payment")
-    public ResponseEntity<Map<String, String>> verifyPayment(@RequestBody Map<String, String> paymentData) {
+    public ResponseEntity<?> verifyPayment(
+            @RequestBody Map<String, String> paymentData,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
         Long orderId = Long.parseLong(paymentData.get("orderId"));
         String paymentId = paymentData.get("paymentId");
         String signature = paymentData.get("signature");
 
-        paymentService.processPaymentSuccess(orderId, paymentId, signature);
-        
-        return ResponseEntity.ok(Map.of("message", "Payment verified successfully"));
+        return idempotencyService.execute(idempotencyKey, "POST /orders/verify-payment", request, () -> {
+            paymentService.processPaymentSuccess(orderId, paymentId, signature);
+            return ResponseEntity.ok(Map.of("message", "Payment verified successfully"));
+        });
     }
 
     @GetMapping("/{id}/payment-status")
-    public ResponseEntity<Map<String, String>> getPaymentStatus(@PathVariable Long id) {
-        Order order = orderService.getUserOrderById(id, authService.getCurrentUser());
+    public ResponseEntity<Map<String, Object>> getPaymentStatus(@PathVariable Long id) {
+        Order order = orderService.getUserOrderSummary(id, authService.getCurrentUser());
         return ResponseEntity.ok(Map.of(
             "status", order.getPaymentStatus().toString(),
-            "paymentId", order.getPaymentId() != null ? order.getPaymentId() : ""
+            "paymentId", order.getPaymentId() != null ? order.getPaymentId() : "",
+            "ready", order.getPaymentId() != null
         ));
     }
 
@@ -82,18 +97,22 @@ public class OrderController {
         BigDecimal amount = new BigDecimal(refundData.get("amount"));
         String reason = refundData.get("reason");
 
-        // Update order status to indicate refund request
-        orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED);
+        // Cancel the order and put its stock back on sale
+        orderService.cancelUserOrder(orderId, authService.getCurrentUser());
         
         return ResponseEntity.ok(Map.of("message", "Refund request submitted successfully"));
     }
 
     @GetMapping("/payment-history")
-    public ResponseEntity<List<Map<String, Object>>> getPaymentHistory() {
+    public ResponseEntity<CursorSlice<Map<String, Object>>> getPaymentHistory(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
         User currentUser = authService.getCurrentUser();
-        List<Order> orders = orderService.getUserOrders(currentUser);
+        CursorSlice<OrderSummary> orders = CursorSlice.of(
+                orderService.getUserOrderHistory(currentUser, PageCursor.decode(after), size),
+                order -> PageCursor.of(order.getCreatedAt(), order.getId()));
         
-        List<Map<String, Object>> paymentHistory = orders.stream()
+        List<Map<String, Object>> paymentHistory = orders.getContent().stream()
             .map(order -> {
                 Map<String, Object> payment = Map.of(
                     "id", order.getId(),
@@ -106,6 +125,6 @@ public class OrderController {
             })
             .toList();
         
-        return ResponseEntity.ok(paymentHistory);
+        return ResponseEntity.ok(new CursorSlice<>(paymentHistory, orders.getSize(), orders.isHasNext(), orders.getNextCursor()));
     }
 } 
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.bloomkart.controller;
 
+import com.bloomkart.dto.CursorSlice;
+import com.bloomkart.dto.PageCursor;
+import com.bloomkart.dto.ProductCard;
+import com.bloomkart.dto.ProductDetail;
 import com.bloomkart.entity.Product;
 import com.bloomkart.service.AuditLogService;
 import com.bloomkart.service.ProductService;
@@ -8,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,30 +31,38 @@ public class ProductController {
     @Autowired
     private AuditLogService auditLogService;
 
+    // Passing "after" (empty for the first page) switches to keyset pagination without a count query
     @GetMapping
-    public ResponseEntity<Page<Product>> getProducts(
+    public ResponseEntity<?> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Boolean isFresh,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            Slice<ProductCard> slice = productService.getProductsWithFiltersAfter(
+                    category, minPrice, maxPrice, isFresh, search, PageCursor.decode(after), size);
+            return ResponseEntity.ok(CursorSlice.of(slice, product -> PageCursor.of(product.getId())));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getProductsWithFilters(category, minPrice, maxPrice, isFresh, search, pageable);
+        Page<ProductCard> products = productService.getProductsWithFilters(category, minPrice, maxPrice, isFresh, search, pageable);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductDetail> getProduct(@PathVariable Long id) {
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(new ProductDetail(product));
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<List<Product>> getFeaturedProducts() {
-        List<Product> products = productService.getFeaturedProducts();
+    public ResponseEntity<List<ProductCard>> getFeaturedProducts() {
+        List<ProductCard> products = productService.getFeaturedProducts();
         return ResponseEntity.ok(products);
     }
 
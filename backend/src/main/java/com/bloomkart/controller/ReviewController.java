@@ -27,15 +27,7 @@ public class ReviewController {
 
     @GetMapping("/product/{productId}/stats")
     public ResponseEntity<Map<String, Object>> getProductReviewStats(@PathVariable Long productId) {
-        Double averageRating = reviewService.getAverageRating(productId);
-        Long reviewCount = reviewService.getReviewCount(productId);
-        
-        Map<String, Object> stats = Map.of(
-            "averageRating", averageRating != null ? averageRating : 0.0,
-            "reviewCount", reviewCount != null ? reviewCount : 0L
-        );
-        
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(reviewService.getRatingStats(productId));
     }
 
     @PostMapping("/product/{productId}")
@@ -0,0 +1,49 @@
+package com.bloomkart.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. No total count is computed;
+ * clients pass {@code nextCursor} back as the {@code after} parameter.
+ */
+public class CursorSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> CursorSlice<T> of(Slice<T> slice, Function<T, PageCursor> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorSlice<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bloomkart.dto;
+
+import com.bloomkart.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a customer's order history. Built by a constructor query, so listing
+ * the history never loads order items; the detail view fetches those separately.
+ */
+public class OrderSummary {
+
+    private Long id;
+    private BigDecimal totalAmount;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private LocalDateTime createdAt;
+    private int itemCount;
+
+    // Constructors
+    public OrderSummary() {
+    }
+
+    public OrderSummary(Long id, BigDecimal totalAmount, Order.OrderStatus status, Order.PaymentStatus paymentStatus,
+                        LocalDateTime createdAt, int itemCount) {
+        this.id = id;
+        this.totalAmount = totalAmount;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public Order.PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(Order.PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bloomkart.dto;
+
+import com.bloomkart.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last row a client has seen.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortKey;
+    private final Long id;
+
+    public PageCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static PageCursor of(LocalDateTime sortKey, Long id) {
+        return new PageCursor(sortKey.toString(), id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(String.valueOf(id), id);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}. A blank value means "start from the first page".
+     */
+    public static PageCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new PageCursor(decoded.substring(0, separator), Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid page cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getSortKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid page cursor");
+        }
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
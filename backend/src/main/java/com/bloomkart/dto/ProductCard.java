@@ -0,0 +1,169 @@
+package com.bloomkart.dto;
+
+import com.bloomkart.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listing view of a product. Built straight from a constructor query so no entity,
+ * lazy collection or persistence context is involved; images are attached afterwards
+ * with one batched query per page.
+ */
+public class ProductCard {
+
+    // Listings only show the start of the description
+    public static final int DESCRIPTION_EXCERPT_LENGTH = 160;
+
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String category;
+    private Integer stockQuantity;
+    private String mainImage;
+    private List<String> images = new ArrayList<>();
+    private boolean isFresh;
+    private boolean isFeatured;
+    private double averageRating;
+    private int ratingCount;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ProductCard() {
+    }
+
+    // Used by the "SELECT new" queries in ProductRepository
+    public ProductCard(Long id, String name, String description, BigDecimal price, String category,
+                       Integer stockQuantity, String mainImage, boolean isFresh, boolean isFeatured,
+                       long ratingSum, int ratingCount, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.category = category;
+        this.stockQuantity = stockQuantity;
+        this.mainImage = mainImage;
+        this.isFresh = isFresh;
+        this.isFeatured = isFeatured;
+        this.averageRating = ratingCount > 0 ? Math.round(ratingSum * 10.0 / ratingCount) / 10.0 : 0.0;
+        this.ratingCount = ratingCount;
+        this.updatedAt = updatedAt;
+    }
+
+    public ProductCard(Product product) {
+        this(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategory(), product.getStockQuantity(), product.getMainImage(), product.isFresh(),
+                product.isFeatured(), product.getRatingSum(), product.getRatingCount(), product.getUpdatedAt());
+        if (product.getImages() != null) {
+            this.images = new ArrayList<>(product.getImages());
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getMainImage() {
+        return mainImage;
+    }
+
+    public void setMainImage(String mainImage) {
+        this.mainImage = mainImage;
+    }
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+
+    public boolean isFresh() {
+        return isFresh;
+    }
+
+    public void setFresh(boolean fresh) {
+        isFresh = fresh;
+    }
+
+    public boolean isFeatured() {
+        return isFeatured;
+    }
+
+    public void setFeatured(boolean featured) {
+        isFeatured = featured;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bloomkart.dto;
+
+import com.bloomkart.entity.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product page view: the listing fields with the full description, plus the rating histogram.
+ */
+public class ProductDetail extends ProductCard {
+
+    private int[] ratingHistogram;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ProductDetail() {
+    }
+
+    public ProductDetail(Product product) {
+        super(product);
+        this.ratingHistogram = product.getRatingHistogram();
+        this.createdAt = product.getCreatedAt();
+    }
+
+    // Getters and Setters
+    public int[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(int[] ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -4,15 +4,18 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blacklisted_tokens")
+@Table(name = "blacklisted_tokens", indexes = {
+        @Index(name = "idx_blacklisted_tokens_blacklisted_at", columnList = "blacklisted_at")
+})
 public class BlacklistedToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // Hex SHA-256 of the JWT; the raw token is never stored
+    @Column(name = "token", nullable = false, unique = true)
+    private String tokenHash;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
@@ -31,9 +34,9 @@ public class BlacklistedToken {
         this.blacklistedAt = LocalDateTime.now();
     }
 
-    public BlacklistedToken(String token, Long userId, LocalDateTime expiresAt, String reason) {
+    public BlacklistedToken(String tokenHash, Long userId, LocalDateTime expiresAt, String reason) {
         this();
-        this.token = token;
+        this.tokenHash = tokenHash;
         this.userId = userId;
         this.expiresAt = expiresAt;
         this.reason = reason;
@@ -48,12 +51,12 @@ public class BlacklistedToken {
         this.id = id;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public Long getUserId() {
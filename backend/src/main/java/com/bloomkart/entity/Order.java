@@ -1,5 +1,6 @@
 package com.bloomkart.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -9,18 +10,36 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@NamedEntityGraph(name = Order.SUMMARY, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = Order.WITH_ITEMS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("orderItems")
+})
+@NamedEntityGraph(name = Order.WITH_ITEMS_AND_PRODUCTS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode(value = "orderItems", subgraph = "items")
+}, subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id")
+})
 public class Order {
 
+    // Fetch plans, picked per use case in OrderRepository
+    public static final String SUMMARY = "Order.summary";
+    public static final String WITH_ITEMS = "Order.withItems";
+    public static final String WITH_ITEMS_AND_PRODUCTS = "Order.withItemsAndProducts";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"password", "verificationToken", "orders", "reviews", "authorities"})
     private User user;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
 
     @NotNull(message = "Total amount is required")
@@ -42,6 +61,10 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
+    // Paid, but the order could not be fulfilled (sold out, or cancelled first); refund or fulfil by hand
+    @Column(name = "needs_review", nullable = false)
+    private boolean needsReview = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -124,6 +147,14 @@ public class Order {
         this.paymentStatus = paymentStatus;
     }
 
+    public boolean isNeedsReview() {
+        return needsReview;
+    }
+
+    public void setNeedsReview(boolean needsReview) {
+        this.needsReview = needsReview;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,77 @@
+package com.bloomkart.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-day order rollup read by the analytics endpoints.
+ * Revenue only counts orders whose payment completed, matching OrderRepository.getRevenueBetweenDates.
+ */
+@Entity
+@Table(name = "order_daily_stats")
+public class OrderDailyStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private long orders = 0;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public OrderDailyStats() {
+    }
+
+    public OrderDailyStats(LocalDate date) {
+        this.date = date;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public OrderDailyStats(LocalDate date, long orders, BigDecimal revenue) {
+        this(date);
+        this.orders = orders;
+        this.revenue = revenue;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,10 +1,13 @@
 package com.bloomkart.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -46,6 +49,7 @@ public class Product {
     private String mainImage;
 
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url")
     private List<String> images;
@@ -56,6 +60,38 @@ public class Product {
     @Column(name = "is_featured")
     private boolean isFeatured = false;
 
+    // Review aggregates, kept in step with the reviews table by ReviewService. Only its atomic delta
+    // updates write them: entity saves never do, and request bodies can't set them
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long ratingSum = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int ratingCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_1_count", nullable = false, insertable = false, updatable = false)
+    private int rating1Count = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_2_count", nullable = false, insertable = false, updatable = false)
+    private int rating2Count = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_3_count", nullable = false, insertable = false, updatable = false)
+    private int rating3Count = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_4_count", nullable = false, insertable = false, updatable = false)
+    private int rating4Count = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_5_count", nullable = false, insertable = false, updatable = false)
+    private int rating5Count = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -163,6 +199,40 @@ public class Product {
         isFeatured = featured;
     }
 
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? Math.round(ratingSum * 10.0 / ratingCount) / 10.0 : 0.0;
+    }
+
+    // Review counts for 1 to 5 stars, in that order
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public int[] getRatingHistogram() {
+        return new int[]{rating1Count, rating2Count, rating3Count, rating4Count, rating5Count};
+    }
+
+    public void setRatingHistogram(int[] histogram) {
+        this.rating1Count = histogram[0];
+        this.rating2Count = histogram[1];
+        this.rating3Count = histogram[2];
+        this.rating4Count = histogram[3];
+        this.rating5Count = histogram[4];
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
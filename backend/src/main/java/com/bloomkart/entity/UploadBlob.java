@@ -0,0 +1,118 @@
+package com.bloomkart.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored upload, identified by the SHA-256 of its content. Identical uploads share the
+ * blob; refCount counts the Product.images entries pointing at it.
+ */
+@Entity
+@Table(name = "upload_blobs", indexes = {
+        @Index(name = "idx_upload_blobs_ref_count_updated_at", columnList = "ref_count, updated_at")
+})
+public class UploadBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Hex SHA-256 of the content
+    @Column(nullable = false, unique = true, length = 64)
+    private String digest;
+
+    // Lower-case extension of the first upload, kept so the content type can be derived from the name
+    @Column(length = 10)
+    private String extension;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Last upload or reference change; unreferenced blobs are only collected once this is old enough
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public UploadBlob() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public UploadBlob(String digest, String extension, long sizeBytes) {
+        this();
+        this.digest = digest;
+        this.extension = extension;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * Name the blob is served under: the digest plus the extension, if any.
+     */
+    public String getFileName() {
+        return extension != null ? digest + "." + extension : digest;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,25 +8,41 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
 
     /**
-     * Finds a blacklisted token by its token string.
-     * @param token The JWT token string.
+     * Finds a blacklisted token by its digest.
+     * @param tokenHash The hex SHA-256 digest of the JWT token string.
      * @return An Optional containing the BlacklistedToken if found.
      */
-    Optional<BlacklistedToken> findByToken(String token);
+    Optional<BlacklistedToken> findByTokenHash(String tokenHash);
 
     /**
-     * Checks if a token exists in the blacklist.
-     * This is more efficient than findByToken when you only need to know if it exists.
-     * @param token The JWT token string.
-     * @return true if the token is blacklisted, false otherwise.
+     * Returns the digests of every blacklisted token, used to rebuild the in-memory blacklist.
+     * @return The hex SHA-256 digests.
      */
-    boolean existsByToken(String token);
+    @Query("SELECT bt.tokenHash FROM BlacklistedToken bt")
+    List<String> findAllTokenHashes();
+
+    /**
+     * Returns the digests of tokens blacklisted at or after the given time,
+     * so other instances' additions can be merged into the in-memory blacklist.
+     * @param since The lower bound on blacklistedAt.
+     * @return The hex SHA-256 digests.
+     */
+    @Query("SELECT bt.tokenHash FROM BlacklistedToken bt WHERE bt.blacklistedAt >= :since")
+    List<String> findTokenHashesBlacklistedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Returns rows still holding a raw JWT from before tokens were stored as digests.
+     * @return The legacy rows.
+     */
+    @Query("SELECT bt FROM BlacklistedToken bt WHERE LENGTH(bt.tokenHash) > 64")
+    List<BlacklistedToken> findLegacyRawTokens();
 
     /**
      * Counts the number of active tokens for a specific user.
@@ -0,0 +1,39 @@
+package com.bloomkart.repository;
+
+import com.bloomkart.entity.EmailMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailMessageRepository extends JpaRepository<EmailMessage, Long> {
+
+    @Query("SELECT m.id FROM EmailMessage m WHERE m.status = 'PENDING' AND m.nextAttemptAt <= :now ORDER BY m.id ASC")
+    List<Long> findReadyIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claims a pending message for this sender. Returns 0 when another node got it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailMessage m SET m.status = 'SENDING', m.attempts = m.attempts + 1, m.updatedAt = :now " +
+           "WHERE m.id = :id AND m.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Returns messages stuck in SENDING (e.g. the node died mid-batch) to the pending queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailMessage m SET m.status = 'PENDING' WHERE m.status = 'SENDING' AND m.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore);
+
+    long countByStatus(EmailMessage.Status status);
+}
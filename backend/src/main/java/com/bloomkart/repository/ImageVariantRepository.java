@@ -0,0 +1,19 @@
+package com.bloomkart.repository;
+
+import com.bloomkart.entity.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    List<ImageVariant> findBySourceFileOrderByWidthAsc(String sourceFile);
+
+    boolean existsBySourceFile(String sourceFile);
+
+    @Query("SELECT DISTINCT v.sourceFile FROM ImageVariant v")
+    List<String> findAllSourceFiles();
+}
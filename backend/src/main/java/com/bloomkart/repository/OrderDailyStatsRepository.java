@@ -0,0 +1,27 @@
+package com.bloomkart.repository;
+
+import com.bloomkart.entity.OrderDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderDailyStatsRepository extends JpaRepository<OrderDailyStats, LocalDate> {
+
+    @Query("SELECT s FROM OrderDailyStats s WHERE s.date BETWEEN :startDate AND :endDate ORDER BY s.date ASC")
+    List<OrderDailyStats> findRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("UPDATE OrderDailyStats s SET s.orders = s.orders + :orders, s.updatedAt = CURRENT_TIMESTAMP WHERE s.date = :date")
+    int addOrders(@Param("date") LocalDate date, @Param("orders") long orders);
+
+    @Modifying
+    @Query("UPDATE OrderDailyStats s SET s.revenue = s.revenue + :revenue, s.updatedAt = CURRENT_TIMESTAMP WHERE s.date = :date")
+    int addRevenue(@Param("date") LocalDate date, @Param("revenue") BigDecimal revenue);
+}
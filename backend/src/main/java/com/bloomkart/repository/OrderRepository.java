@@ -1,25 +1,51 @@
 package com.bloomkart.repository;
 
+import com.bloomkart.dto.OrderSummary;
 import com.bloomkart.entity.Order;
 import com.bloomkart.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Page<Order> findByUser(User user, Pageable pageable);
 
-    List<Order> findByUserOrderByCreatedAtDesc(User user);
+    // Fetch plans per use case: listings page over summaries, detail views load items and products
 
+    @EntityGraph(Order.SUMMARY)
+    Optional<Order> findSummaryById(Long id);
+
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
+    Optional<Order> findWithItemsAndProductsById(Long id);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Override
+    @EntityGraph(Order.SUMMARY)
+    Page<Order> findAll(Pageable pageable);
+
+    @EntityGraph(Order.SUMMARY)
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
 
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
@@ -62,4 +88,112 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :startDate")
     long countOrdersSince(@Param("startDate") LocalDateTime startDate);
-} 
\ No newline at end of file
+
+    // Per-day order count and completed revenue; used to rebuild order_daily_stats
+    @Query("SELECT extract(date from o.createdAt), COUNT(o), " +
+           "COALESCE(SUM(CASE WHEN o.paymentStatus = 'COMPLETED' THEN o.totalAmount ELSE 0 END), 0) " +
+           "FROM Order o WHERE o.createdAt >= :startDate " +
+           "GROUP BY extract(date from o.createdAt)")
+    List<Object[]> aggregateDailyStatsSince(@Param("startDate") LocalDateTime startDate);
+
+    // Forward-only projections for the admin reports; must be consumed inside a read-only transaction
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.createdAt, o.totalAmount FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
+    Stream<Object[]> streamOrderTotalsBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.deliveryDetails.city, o.user.id, o.totalAmount FROM Order o")
+    Stream<Object[]> streamOrderLocations();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT oi.product.id, oi.quantity, oi.price FROM OrderItem oi WHERE oi.order.paymentStatus = 'COMPLETED'")
+    Stream<Object[]> streamCompletedOrderItems();
+
+    @Query("SELECT MIN(o.createdAt) FROM Order o")
+    LocalDateTime findFirstOrderDate();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentId = :paymentId, o.updatedAt = CURRENT_TIMESTAMP WHERE o.id = :id")
+    int updatePaymentId(@Param("id") Long id, @Param("paymentId") String paymentId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentStatus = :paymentStatus, o.updatedAt = CURRENT_TIMESTAMP WHERE o.id = :id")
+    int updatePaymentStatus(@Param("id") Long id, @Param("paymentStatus") Order.PaymentStatus paymentStatus);
+
+    /**
+     * Marks a pending, uncancelled order as paid.
+     * @return 0 when the order was already paid, failed or cancelled; the caller must not take stock then.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentStatus = :completed, o.paymentId = :paymentId, o.needsReview = false, " +
+           "o.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE o.id = :id AND o.paymentStatus = :pending AND o.status <> :cancelled")
+    int completePayment(@Param("id") Long id, @Param("paymentId") String paymentId,
+                        @Param("pending") Order.PaymentStatus pending, @Param("completed") Order.PaymentStatus completed,
+                        @Param("cancelled") Order.OrderStatus cancelled);
+
+    default int completePayment(Long id, String paymentId) {
+        return completePayment(id, paymentId, Order.PaymentStatus.PENDING, Order.PaymentStatus.COMPLETED,
+                Order.OrderStatus.CANCELLED);
+    }
+
+    // Cancels an order whose payment never arrived; a no-op once the payment was completed
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentStatus = :failed, o.status = :cancelled, o.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE o.id = :id AND o.paymentStatus = :pending")
+    int expireUnpaid(@Param("id") Long id, @Param("pending") Order.PaymentStatus pending,
+                     @Param("failed") Order.PaymentStatus failed, @Param("cancelled") Order.OrderStatus cancelled);
+
+    default int expireUnpaid(Long id) {
+        return expireUnpaid(id, Order.PaymentStatus.PENDING, Order.PaymentStatus.FAILED, Order.OrderStatus.CANCELLED);
+    }
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.needsReview = true, o.updatedAt = CURRENT_TIMESTAMP WHERE o.id = :id")
+    int flagForReview(@Param("id") Long id);
+
+    // Keyset (seek) pagination, newest first: rows after the last seen (createdAt, id)
+
+    @EntityGraph(Order.SUMMARY)
+    @Query("SELECT o FROM Order o WHERE (:status IS NULL OR o.status = :status) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findSliceFirst(@Param("status") Order.OrderStatus status, Pageable pageable);
+
+    @EntityGraph(Order.SUMMARY)
+    @Query("SELECT o FROM Order o WHERE (:status IS NULL OR o.status = :status) AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findSliceAfter(
+            @Param("status") Order.OrderStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    // A customer's order history, newest first, seeking on idx_orders_user_created_at_id
+
+    @Query("SELECT new com.bloomkart.dto.OrderSummary(o.id, o.totalAmount, o.status, o.paymentStatus, o.createdAt, " +
+           "SIZE(o.orderItems)) FROM Order o WHERE o.user.id = :userId " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<OrderSummary> findUserSummariesFirst(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.bloomkart.dto.OrderSummary(o.id, o.totalAmount, o.status, o.paymentStatus, o.createdAt, " +
+           "SIZE(o.orderItems)) FROM Order o WHERE o.user.id = :userId AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<OrderSummary> findUserSummariesAfter(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+}
@@ -0,0 +1,46 @@
+package com.bloomkart.repository;
+
+import com.bloomkart.entity.PaymentOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Long> {
+
+    @Query("SELECT p.id FROM PaymentOutbox p WHERE p.status = 'PENDING' AND p.nextAttemptAt <= :now ORDER BY p.id ASC")
+    List<Long> findReadyIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claims a pending entry for this worker. Returns 0 when another worker (or node) got it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOutbox p SET p.status = 'PROCESSING', p.attempts = p.attempts + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Gives back a claim whose work never started, without counting it as an attempt.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOutbox p SET p.status = 'PENDING', p.attempts = p.attempts - 1 " +
+           "WHERE p.id = :id AND p.status = 'PROCESSING'")
+    int unclaim(@Param("id") Long id);
+
+    /**
+     * Returns entries stuck in PROCESSING (e.g. the node died mid-call) to the pending queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentOutbox p SET p.status = 'PENDING' WHERE p.status = 'PROCESSING' AND p.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore);
+}
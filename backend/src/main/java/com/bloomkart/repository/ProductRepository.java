@@ -1,24 +1,37 @@
 package com.bloomkart.repository;
 
+import com.bloomkart.dto.ProductCard;
 import com.bloomkart.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
-    Page<Product> findByCategory(String category, Pageable pageable);
+    // Select clause for the ProductCard listing projection; images are loaded separately by findImagesByProductIds
+    String CARD = "SELECT new com.bloomkart.dto.ProductCard(p.id, p.name, " +
+                  "SUBSTRING(p.description, 1, " + ProductCard.DESCRIPTION_EXCERPT_LENGTH + "), p.price, p.category, " +
+                  "p.stockQuantity, p.mainImage, p.isFresh, p.isFeatured, p.ratingSum, p.ratingCount, p.updatedAt) ";
 
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
-
-    List<Product> findByIsFeaturedTrue();
+    String FILTERS = "(:category IS NULL OR p.category = :category) AND " +
+                     "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+                     "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+                     "(:isFresh IS NULL OR p.isFresh = :isFresh) AND " +
+                     "(:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')))";
 
     List<Product> findByIsFreshTrue();
 
@@ -28,13 +41,33 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.category = :category AND p.stockQuantity > 0")
     Page<Product> findAvailableByCategory(@Param("category") String category, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:category IS NULL OR p.category = :category) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-           "(:isFresh IS NULL OR p.isFresh = :isFresh) AND " +
-           "(:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Product> findWithFilters(
+    @Query("SELECT p.id, i FROM Product p JOIN p.images i WHERE p.id IN :ids")
+    List<Object[]> findImagesByProductIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT i FROM Product p JOIN p.images i")
+    List<String> findAllImageUrls();
+
+    @Query(CARD + "FROM Product p WHERE p.id IN :ids")
+    List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = CARD + "FROM Product p",
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductCard> findAllCards(Pageable pageable);
+
+    @Query(value = CARD + "FROM Product p WHERE p.category = :category",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category = :category")
+    Page<ProductCard> findCardsByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = CARD + "FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    Page<ProductCard> findCardsByName(@Param("name") String name, Pageable pageable);
+
+    @Query(CARD + "FROM Product p WHERE p.isFeatured = true")
+    List<ProductCard> findFeaturedCards();
+
+    @Query(value = CARD + "FROM Product p WHERE " + FILTERS,
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " + FILTERS)
+    Page<ProductCard> findCardsWithFilters(
             @Param("category") String category,
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
@@ -52,9 +85,75 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.stockQuantity <= 10")
     long countLowStock();
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= 10 ORDER BY p.stockQuantity ASC")
-    Page<Product> findLowStockProducts(Pageable pageable);
+    @Query(value = CARD + "FROM Product p WHERE p.stockQuantity <= 10 ORDER BY p.stockQuantity ASC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.stockQuantity <= 10")
+    Page<ProductCard> findLowStockCards(Pageable pageable);
+
+    @Query(value = CARD + "FROM Product p WHERE p.stockQuantity = 0 ORDER BY p.name ASC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.stockQuantity = 0")
+    Page<ProductCard> findOutOfStockCards(Pageable pageable);
+
+    // Keyset (seek) pagination: rows after the last seen id, no count query
+
+    @Query(CARD + "FROM Product p WHERE p.id > :afterId ORDER BY p.id ASC")
+    Slice<ProductCard> findCardSliceAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(CARD + "FROM Product p WHERE p.category = :category AND p.id > :afterId ORDER BY p.id ASC")
+    Slice<ProductCard> findCardSliceByCategoryAfter(@Param("category") String category, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(CARD + "FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.id > :afterId ORDER BY p.id ASC")
+    Slice<ProductCard> findCardSliceByNameAfter(@Param("name") String name, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(CARD + "FROM Product p WHERE " + FILTERS + " AND p.id > :afterId ORDER BY p.id ASC")
+    Slice<ProductCard> findCardSliceWithFiltersAfter(
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("isFresh") Boolean isFresh,
+            @Param("search") String search,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.id, p.name, p.stockQuantity, p.ratingSum, p.ratingCount FROM Product p ORDER BY p.id")
+    Stream<Object[]> streamStockSummary();
+
+    /**
+     * Applies one review change to the product's rating aggregates in a single row update.
+     * A rating of 0 means "none": added=0 for a deletion, removed=0 for a new review.
+     */
+    default int applyRatingChange(Long id, int removed, int added) {
+        return applyRatingDelta(id, (long) added - removed, removed, added);
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET " +
+           "p.ratingSum = p.ratingSum + :sumDelta, " +
+           "p.ratingCount = p.ratingCount + (CASE WHEN :added > 0 THEN 1 ELSE 0 END) - (CASE WHEN :removed > 0 THEN 1 ELSE 0 END), " +
+           "p.rating1Count = p.rating1Count + (CASE WHEN :added = 1 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 1 THEN 1 ELSE 0 END), " +
+           "p.rating2Count = p.rating2Count + (CASE WHEN :added = 2 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 2 THEN 1 ELSE 0 END), " +
+           "p.rating3Count = p.rating3Count + (CASE WHEN :added = 3 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 3 THEN 1 ELSE 0 END), " +
+           "p.rating4Count = p.rating4Count + (CASE WHEN :added = 4 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 4 THEN 1 ELSE 0 END), " +
+           "p.rating5Count = p.rating5Count + (CASE WHEN :added = 5 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 5 THEN 1 ELSE 0 END) " +
+           "WHERE p.id = :id")
+    int applyRatingDelta(@Param("id") Long id, @Param("sumDelta") long sumDelta,
+                         @Param("removed") int removed, @Param("added") int added);
+
+    @Query("SELECT COALESCE(SUM(p.ratingCount), 0) FROM Product p")
+    long sumRatingCounts();
+
+    @Modifying
+    @Query("UPDATE Product p SET p.ratingSum = 0, p.ratingCount = 0, p.rating1Count = 0, p.rating2Count = 0, " +
+           "p.rating3Count = 0, p.rating4Count = 0, p.rating5Count = 0")
+    int resetRatingAggregates();
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity = 0 ORDER BY p.name ASC")
-    Page<Product> findOutOfStockProducts(Pageable pageable);
-} 
\ No newline at end of file
+    @Modifying
+    @Query("UPDATE Product p SET p.ratingSum = :sum, p.ratingCount = :count, p.rating1Count = :c1, " +
+           "p.rating2Count = :c2, p.rating3Count = :c3, p.rating4Count = :c4, p.rating5Count = :c5 " +
+           "WHERE p.id = :id")
+    int setRatingAggregates(@Param("id") Long id, @Param("sum") long sum, @Param("count") int count,
+                            @Param("c1") int c1, @Param("c2") int c2, @Param("c3") int c3,
+                            @Param("c4") int c4, @Param("c5") int c5);
+}
@@ -0,0 +1,21 @@
+package com.bloomkart.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Decrements stock for every product in one JDBC batch of guarded updates.
+     * A row is only updated when it still has enough stock, so concurrent checkouts can't oversell.
+     * @param quantities Quantity to take, keyed by product id.
+     * @return Ids of the products that did not have enough stock (empty when all updates applied).
+     */
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Puts stock back for every product in one JDBC batch, e.g. when a paid order is cancelled.
+     * @param quantities Quantity to return, keyed by product id.
+     */
+    void incrementStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,58 @@
+package com.bloomkart.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        // Update rows in id order so concurrent checkouts lock products in the same sequence
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setLong(2, row.getKey());
+            ps.setInt(3, row.getValue());
+        })[0];
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] != 1) {
+                insufficient.add(rows.get(i).getKey());
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setLong(2, row.getKey());
+        });
+    }
+}
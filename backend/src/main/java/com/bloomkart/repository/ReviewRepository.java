@@ -20,12 +20,14 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     boolean existsByUserAndProduct(User user, Product product);
 
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product = :product")
-    Double getAverageRatingByProduct(@Param("product") Product product);
-
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.product = :product")
-    Long getReviewCountByProduct(@Param("product") Product product);
-
     @Query("SELECT r FROM Review r WHERE r.product = :product ORDER BY r.createdAt DESC")
     List<Review> findRecentReviewsByProduct(@Param("product") Product product, org.springframework.data.domain.Pageable pageable);
-} 
\ No newline at end of file
+
+    // Per-product sum, count and 1-5 star histogram, used to rebuild the aggregates on Product
+    @Query("SELECT r.product.id, SUM(r.rating), COUNT(r), " +
+           "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) " +
+           "FROM Review r GROUP BY r.product.id")
+    List<Object[]> aggregateRatingsByProduct();
+}
@@ -0,0 +1,61 @@
+package com.bloomkart.repository;
+
+import com.bloomkart.entity.UploadBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadBlobRepository extends JpaRepository<UploadBlob, Long> {
+
+    Optional<UploadBlob> findByDigest(String digest);
+
+    /**
+     * Marks a blob as freshly uploaded so the sweeper leaves it alone for the grace period.
+     * @return 0 when no blob with this digest exists yet.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadBlob b SET b.updatedAt = :now WHERE b.digest = :digest")
+    int touch(@Param("digest") String digest, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadBlob b SET b.refCount = b.refCount + :delta, b.updatedAt = :now WHERE b.digest = :digest")
+    int adjustRefCount(@Param("digest") String digest, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadBlob b SET b.refCount = :refCount, b.updatedAt = :now WHERE b.digest = :digest")
+    int setRefCount(@Param("digest") String digest, @Param("refCount") int refCount, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b FROM UploadBlob b WHERE b.refCount <= 0 AND b.updatedAt < :cutoff ORDER BY b.id ASC")
+    List<UploadBlob> findUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Deletes the blob row unless it was uploaded or referenced again since it was picked for collection.
+     * @return 1 when the row was deleted and its file may be removed.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadBlob b WHERE b.id = :id AND b.refCount <= 0 AND b.updatedAt < :cutoff")
+    int deleteIfUnreferenced(@Param("id") Long id, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Deletes a blob that nothing has uploaded again or referenced since it was created.
+     * Used to undo the uploads of a product save that rolled back, so it runs in a transaction of its own.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("DELETE FROM UploadBlob b WHERE b.id = :id AND b.refCount <= 0 AND b.updatedAt = b.createdAt")
+    int deleteIfUntouched(@Param("id") Long id);
+}
@@ -1,13 +1,20 @@
 package com.bloomkart.repository;
 
 import com.bloomkart.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -29,4 +36,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt <= :date")
     long countUsersRegisteredBefore(@Param("date") java.time.LocalDateTime date);
-} 
\ No newline at end of file
+
+    @Query("SELECT extract(date from u.createdAt), COUNT(u) FROM User u " +
+           "WHERE u.createdAt > :startDate AND u.createdAt <= :endDate " +
+           "GROUP BY extract(date from u.createdAt)")
+    List<Object[]> countRegistrationsPerDay(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u.createdAt FROM User u")
+    Stream<LocalDateTime> streamRegistrationDates();
+
+    // Keyset (seek) pagination, newest first: rows after the last seen (createdAt, id)
+
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC, u.id DESC")
+    Slice<User> findSliceFirst(Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    Slice<User> findSliceAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
@@ -1,6 +1,8 @@
 package com.bloomkart.security;
 
+import com.bloomkart.entity.User;
 import com.bloomkart.service.AuthService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,6 +21,8 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -34,6 +38,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    private static final long PRINCIPAL_CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final int PRINCIPAL_CACHE_MAX_SIZE = 10_000;
+
+    private final Map<String, CachedPrincipal> principalCache = new ConcurrentHashMap<>();
+
     private static final List<String> EXCLUDED_PATHS = List.of("/api/auth/login", "/api/auth/register", "/api/auth/refresh");
 
     @Override
@@ -48,20 +57,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String jwt = parseJwt(request);
+            Claims claims = jwt != null ? jwtUtils.parseValidClaims(jwt) : null;
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                // Check if token is blacklisted
-                if (authService.isTokenBlacklisted(jwt)) {
+            if (claims != null) {
+                // Only refresh tokens are ever blacklisted, so access tokens skip the lookup
+                if (claims.get("type") != null && authService.isTokenBlacklisted(jwt)) {
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("Token has been invalidated");
                     return;
                 }
                 
-                String username = jwtUtils.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails principal = resolvePrincipal(claims);
                 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -73,6 +82,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Access tokens carry userId and role; other tokens fall back to a cached user lookup
+    private UserDetails resolvePrincipal(Claims claims) {
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+        if (principal != null) {
+            return principal;
+        }
+
+        String email = claims.getSubject();
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principalCache.get(email);
+        if (cached != null && cached.loadedAt + PRINCIPAL_CACHE_TTL_MS > now) {
+            return cached.principal;
+        }
+
+        User user = (User) userDetailsService.loadUserByUsername(email);
+        principal = JwtPrincipal.fromUser(user);
+        if (principalCache.size() >= PRINCIPAL_CACHE_MAX_SIZE) {
+            principalCache.clear();
+        }
+        principalCache.put(email, new CachedPrincipal(principal, now));
+        return principal;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -82,4 +114,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         return null;
     }
-} 
\ No newline at end of file
+
+    private static class CachedPrincipal {
+        final JwtPrincipal principal;
+        final long loadedAt;
+
+        CachedPrincipal(JwtPrincipal principal, long loadedAt) {
+            this.principal = principal;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.bloomkart.security;
+
+import com.bloomkart.entity.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user rebuilt from the claims of an access token, so requests can be
+ * authorised without loading the User entity. Holds no credentials.
+ */
+public class JwtPrincipal implements UserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long userId, String email, String role) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    /**
+     * Returns the principal carried by the claims, or null when they lack the userId/role claims.
+     */
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(userId, claims.getSubject(), role);
+    }
+
+    public static JwtPrincipal fromUser(User user) {
+        return new JwtPrincipal(user.getId(), user.getEmail(), user.getRole().name());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,8 +1,6 @@
 package com.bloomkart.service;
 
-import com.bloomkart.entity.Order;
-import com.bloomkart.entity.Product;
-import com.bloomkart.entity.User;
+import com.bloomkart.entity.OrderDailyStats;
 import com.bloomkart.repository.OrderRepository;
 import com.bloomkart.repository.ProductRepository;
 import com.bloomkart.repository.UserRepository;
@@ -14,6 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,22 +27,21 @@ public class AnalyticsService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private DashboardComposer dashboardComposer;
+
     public Map<String, Object> getDashboardAnalytics(int days) {
-        Map<String, Object> analytics = new HashMap<>();
-        
-        // Get sales data
-        analytics.put("salesData", getSalesData(days));
-        
-        // Get user growth
-        analytics.put("userGrowth", getUserGrowth(12));
-        
-        // Get top products
-        analytics.put("topProducts", getTopProducts(10));
-        
-        // Get revenue stats
-        analytics.put("revenueStats", getRevenueStats(days));
-        
-        return analytics;
+        // The four sections are independent, so they are loaded in parallel
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        sections.put("salesData", () -> getSalesData(days));
+        sections.put("userGrowth", () -> getUserGrowth(12));
+        sections.put("topProducts", () -> getTopProducts(10));
+        sections.put("revenueStats", () -> getRevenueStats(days));
+        
+        return dashboardComposer.compose(sections);
     }
 
     public Map<String, Object> getSalesData(int days) {
@@ -52,18 +50,15 @@ public class AnalyticsService {
         
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
+        Map<LocalDate, OrderDailyStats> statsByDate = getDailyStats(startDate, endDate);
         
         // Generate daily sales data
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
             Map<String, Object> dayData = new HashMap<>();
             dayData.put("date", date.format(DateTimeFormatter.ISO_LOCAL_DATE));
             
-            // Calculate sales for this day
-            LocalDateTime dayStart = date.atStartOfDay();
-            LocalDateTime dayEnd = date.atTime(23, 59, 59);
-            
-            BigDecimal dailyRevenue = orderRepository.getRevenueBetweenDates(dayStart, dayEnd);
-            dayData.put("sales", dailyRevenue != null ? dailyRevenue.doubleValue() : 0.0);
+            OrderDailyStats stats = statsByDate.get(date);
+            dayData.put("sales", stats != null ? stats.getRevenue().doubleValue() : 0.0);
             
             dailySales.add(dayData);
         }
@@ -78,15 +73,31 @@ public class AnalyticsService {
         
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusMonths(months - 1);
+
+        // One count for the baseline plus one grouped scan, instead of a count per month
+        LocalDateTime firstMonthEnd = startDate.plusMonths(1).atStartOfDay().minusSeconds(1);
+        LocalDateTime lastMonthEnd = endDate.plusMonths(1).atStartOfDay().minusSeconds(1);
+        long userCount = userRepository.countUsersRegisteredBefore(firstMonthEnd);
+        TreeMap<LocalDate, Long> registrationsPerDay = new TreeMap<>();
+        for (Object[] row : userRepository.countRegistrationsPerDay(firstMonthEnd, lastMonthEnd)) {
+            LocalDate day = row[0] instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[0];
+            registrationsPerDay.put(day, ((Number) row[1]).longValue());
+        }
         
         // Generate monthly user growth data
+        LocalDate previousMonthEnd = firstMonthEnd.toLocalDate();
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusMonths(1)) {
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("month", date.format(DateTimeFormatter.ofPattern("MMM")));
             
             // Count users registered up to this month
-            LocalDateTime monthEnd = date.plusMonths(1).atStartOfDay().minusSeconds(1);
-            long userCount = userRepository.countUsersRegisteredBefore(monthEnd);
+            LocalDate monthEnd = date.plusMonths(1).minusDays(1);
+            if (monthEnd.isAfter(previousMonthEnd)) {
+                userCount += registrationsPerDay.subMap(previousMonthEnd, false, monthEnd, true).values().stream()
+                        .mapToLong(Long::longValue)
+                        .sum();
+                previousMonthEnd = monthEnd;
+            }
             monthData.put("users", userCount);
             
             monthlyUsers.add(monthData);
@@ -119,17 +130,22 @@ public class AnalyticsService {
     public Map<String, Object> getRevenueStats(int days) {
         Map<String, Object> revenueStats = new HashMap<>();
         
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(days);
-        LocalDateTime previousStartDate = startDate.minusDays(days);
-        
-        // Current period revenue
-        BigDecimal currentRevenue = orderRepository.getRevenueBetweenDates(startDate, endDate);
-        currentRevenue = currentRevenue != null ? currentRevenue : BigDecimal.ZERO;
-        
-        // Previous period revenue
-        BigDecimal previousRevenue = orderRepository.getRevenueBetweenDates(previousStartDate, startDate);
-        previousRevenue = previousRevenue != null ? previousRevenue : BigDecimal.ZERO;
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days - 1);
+        LocalDate previousStartDate = startDate.minusDays(days);
+
+        // Both periods come from one range scan of the daily rollup
+        BigDecimal currentRevenue = BigDecimal.ZERO;
+        BigDecimal previousRevenue = BigDecimal.ZERO;
+        long totalOrders = 0;
+        for (OrderDailyStats stats : orderStatsService.getRange(previousStartDate, endDate)) {
+            if (stats.getDate().isBefore(startDate)) {
+                previousRevenue = previousRevenue.add(stats.getRevenue());
+            } else {
+                currentRevenue = currentRevenue.add(stats.getRevenue());
+                totalOrders += stats.getOrders();
+            }
+        }
         
         // Calculate growth percentage
         double growth = 0.0;
@@ -137,9 +153,6 @@ public class AnalyticsService {
             growth = ((currentRevenue.doubleValue() - previousRevenue.doubleValue()) / previousRevenue.doubleValue()) * 100;
         }
         
-        // Get total orders
-        long totalOrders = orderRepository.countOrdersBetweenDates(startDate, endDate);
-        
         // Calculate average order value
         BigDecimal averageOrder = totalOrders > 0 ? currentRevenue.divide(BigDecimal.valueOf(totalOrders), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO;
         
@@ -151,4 +164,9 @@ public class AnalyticsService {
         
         return revenueStats;
     }
+
+    private Map<LocalDate, OrderDailyStats> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        return orderStatsService.getRange(startDate, endDate).stream()
+                .collect(Collectors.toMap(OrderDailyStats::getDate, stats -> stats));
+    }
 } 
\ No newline at end of file
@@ -1,17 +1,173 @@
 package com.bloomkart.service;
 
 import com.bloomkart.entity.AuditLog;
-import com.bloomkart.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit entries are queued in a ring buffer and written by a background thread as multi-row
+ * inserts, every flush interval or as soon as a full batch is waiting. Logging an action only
+ * costs the request thread an enqueue; entries still queued at shutdown are flushed first.
+ */
 @Service
 public class AuditLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_logs (action, details, performed_by, timestamp) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?)";
+
+    /**
+     * What logAction does when the buffer is full.
+     */
+    public enum Backpressure {
+        // Write the entry on the calling thread
+        CALLER_RUNS,
+        // Wait for the writer to free a slot
+        BLOCK,
+        // Discard the entry and count it
+        DROP
+    }
+
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.backpressure:CALLER_RUNS}")
+    private Backpressure backpressure;
+
+    private MpscRingBuffer<AuditLog> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
 
     public void logAction(String action, String details, String performedBy) {
         AuditLog log = new AuditLog(action, details, performedBy);
-        auditLogRepository.save(log);
+        if (running && buffer.offer(log)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+
+        switch (running ? backpressure : Backpressure.CALLER_RUNS) {
+            case CALLER_RUNS -> write(List.of(log));
+            case BLOCK -> {
+                while (!buffer.offer(log)) {
+                    if (!running) {
+                        write(List.of(log));
+                        return;
+                    }
+                    LockSupport.unpark(writer);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+            case DROP -> dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes everything queued so far. Safe to call from any thread; the writer thread keeps
+     * sole ownership of the buffer's consumer side.
+     */
+    public void flush() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.size() > 0 && writer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (buffer.size() > 0) {
+            logger.warn("Audit log writer stopped with {} entries unwritten", buffer.size());
+        }
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long reportedDrops = 0;
+        while (running || buffer.size() > 0) {
+            buffer.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                logger.warn("Audit log buffer full: {} entries dropped so far", drops);
+                reportedDrops = drops;
+            }
+
+            // Keep writing while full batches are waiting; otherwise sleep until the next flush
+            if (running && buffer.size() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+    }
+
+    // One INSERT with a VALUES row per entry
+    private void write(List<AuditLog> logs) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + logs.size() * 14).append(INSERT_PREFIX);
+        List<Object> params = new ArrayList<>(logs.size() * 4);
+        for (int i = 0; i < logs.size(); i++) {
+            AuditLog log = logs.get(i);
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+            params.add(log.getAction());
+            params.add(log.getDetails());
+            params.add(log.getPerformedBy());
+            params.add(Timestamp.valueOf(log.getTimestamp()));
+        }
+
+        try {
+            jdbcTemplate.update(sql.toString(), params.toArray());
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} audit log entries: {}", logs.size(), e.getMessage());
+        }
     }
-} 
\ No newline at end of file
+}
@@ -6,10 +6,8 @@ import com.bloomkart.dto.ProfileUpdateRequest;
 import com.bloomkart.dto.RegisterRequest;
 import com.bloomkart.dto.RefreshTokenRequest;
 import com.bloomkart.entity.User;
-import com.bloomkart.entity.BlacklistedToken;
 import com.bloomkart.exception.BusinessException;
 import com.bloomkart.repository.UserRepository;
-import com.bloomkart.repository.BlacklistedTokenRepository;
 import com.bloomkart.security.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -32,19 +30,19 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenBlacklistService tokenBlacklistService;
 
     @Autowired
     public AuthService(AuthenticationManager authenticationManager,
                       UserRepository userRepository,
                       PasswordEncoder passwordEncoder,
                       JwtUtils jwtUtils,
-                      BlacklistedTokenRepository blacklistedTokenRepository) {
+                      TokenBlacklistService tokenBlacklistService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtils = jwtUtils;
-        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.tokenBlacklistService = tokenBlacklistService;
     }
 
     public AuthResponse login(LoginRequest loginRequest) {
@@ -86,8 +84,8 @@ public class AuthService {
     public AuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
         String refreshToken = refreshTokenRequest.getRefreshToken();
 
-        // Check if token is blacklisted
-        if (blacklistedTokenRepository.existsByToken(refreshToken)) {
+        // Check if token is blacklisted, including by another node since the last filter sync
+        if (tokenBlacklistService.isBlacklistedOnAnyNode(refreshToken)) {
             throw new RuntimeException("Token has been invalidated");
         }
 
@@ -137,11 +135,11 @@ public class AuthService {
 
     public void logoutAllSessions() {
         User currentUser = getCurrentUser();
-        blacklistedTokenRepository.deleteByUserId(currentUser.getId());
+        tokenBlacklistService.removeForUser(currentUser.getId());
     }
 
     public void logoutAllSessionsForUser(Long userId) {
-        blacklistedTokenRepository.deleteByUserId(userId);
+        tokenBlacklistService.removeForUser(userId);
     }
 
     private void blacklistToken(String token, Long userId, String reason) {
@@ -152,8 +150,7 @@ public class AuthService {
                     .atZone(java.time.ZoneId.systemDefault())
                     .toLocalDateTime();
 
-            BlacklistedToken blacklistedToken = new BlacklistedToken(token, userId, expiresAt, reason);
-            blacklistedTokenRepository.save(blacklistedToken);
+            tokenBlacklistService.blacklist(token, userId, expiresAt, reason);
         } catch (Exception e) {
             // Log error but don't fail the operation
             System.err.println("Error blacklisting token: " + e.getMessage());
@@ -161,7 +158,7 @@ public class AuthService {
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokenRepository.existsByToken(token);
+        return tokenBlacklistService.isBlacklisted(token);
     }
 
     public long getActiveSessionsCount(Long userId) {
@@ -173,7 +170,6 @@ public class AuthService {
     // Scheduled task to clean up expired blacklisted tokens
     @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
     public void cleanupExpiredBlacklistedTokens() {
-        LocalDateTime now = LocalDateTime.now();
-        blacklistedTokenRepository.deleteExpiredTokens(now);
+        tokenBlacklistService.purgeExpired();
     }
 } 
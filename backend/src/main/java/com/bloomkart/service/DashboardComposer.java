@@ -0,0 +1,86 @@
+package com.bloomkart.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Computes the sections of an admin dashboard in parallel. Every section shares one deadline;
+ * a section that throws or runs past it is replaced by an error marker and the rest are still returned.
+ * Sections must let their exceptions propagate, otherwise the result can't be marked partial.
+ */
+@Service
+public class DashboardComposer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardComposer.class);
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${dashboard.section-timeout-ms:5000}")
+    private long sectionTimeoutMs;
+
+    public Map<String, Object> compose(Map<String, Supplier<?>> sections) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        Map<String, Object> result = new HashMap<>();
+        boolean partial = false;
+
+        // Plain executor futures rather than CompletableFuture, so cancelling one interrupts its worker
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<?>> section : sections.entrySet()) {
+            try {
+                futures.put(section.getKey(), executor.submit(section.getValue()::get));
+            } catch (TaskRejectedException e) {
+                // Never run on the request thread, where the deadline couldn't apply
+                logger.warn("Dashboard section {} rejected, all dashboard workers are busy", section.getKey());
+                result.put(section.getKey(), errorMarker("Section not loaded, the server is busy"));
+                partial = true;
+            }
+        }
+
+        for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+            String name = entry.getKey();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                result.put(name, entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                logger.warn("Dashboard section {} timed out after {} ms", name, sectionTimeoutMs);
+                result.put(name, errorMarker("Section timed out"));
+                partial = true;
+            } catch (ExecutionException e) {
+                logger.error("Dashboard section {} failed", name, e.getCause());
+                result.put(name, errorMarker("Section failed to load"));
+                partial = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                entry.getValue().cancel(true);
+                result.put(name, errorMarker("Section interrupted"));
+                partial = true;
+            }
+        }
+        result.put("partial", partial);
+        return result;
+    }
+
+    private static Map<String, Object> errorMarker(String message) {
+        Map<String, Object> marker = new HashMap<>();
+        marker.put("error", message);
+        return marker;
+    }
+}
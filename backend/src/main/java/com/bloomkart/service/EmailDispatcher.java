@@ -0,0 +1,179 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.EmailMessage;
+import com.bloomkart.repository.EmailMessageRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the mail queue on a single sender thread. Each batch of due messages goes out over
+ * one SMTP connection; failed messages are retried with exponential backoff.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    @Autowired
+    private EmailMessageRepository emailMessageRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    @Qualifier("mailSenderExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${mail.queue.from:}")
+    private String from;
+
+    @Value("${mail.queue.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.queue.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.queue.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    // Send as soon as the queuing transaction commits instead of waiting for the next poll
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageQueued(EmailMessage message) {
+        schedule();
+    }
+
+    @Scheduled(fixedDelayString = "${mail.queue.poll-interval-ms:5000}")
+    public void poll() {
+        emailMessageRepository.requeueStale(LocalDateTime.now().minusMinutes(5));
+        schedule();
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (TaskRejectedException e) {
+            // A drain is already queued behind the running one; it will pick the message up
+        }
+    }
+
+    void drain() {
+        while (true) {
+            List<Long> ready = emailMessageRepository.findReadyIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            List<Long> claimed = new ArrayList<>(ready.size());
+            for (Long id : ready) {
+                if (emailMessageRepository.claim(id, LocalDateTime.now()) == 1) {
+                    claimed.add(id);
+                }
+            }
+            if (!claimed.isEmpty()) {
+                send(emailMessageRepository.findAllById(claimed));
+            }
+            if (ready.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void send(List<EmailMessage> messages) {
+        Map<MimeMessage, EmailMessage> batch = new IdentityHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            try {
+                MimeMessage mimeMessage = toMimeMessage(message);
+                batch.put(mimeMessage, message);
+                mimeMessages.add(mimeMessage);
+            } catch (MessagingException e) {
+                failed(message, e);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        if (!mimeMessages.isEmpty()) {
+            try {
+                // JavaMailSender sends an array of messages over a single connection
+                mailSender.send(mimeMessages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    failures = allFailed(mimeMessages, e);
+                }
+            } catch (MailException e) {
+                failures = allFailed(mimeMessages, e);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, EmailMessage> entry : batch.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            EmailMessage message = entry.getValue();
+            if (failure != null) {
+                failed(message, failure);
+            } else {
+                message.setStatus(EmailMessage.Status.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+            }
+        }
+        emailMessageRepository.saveAll(messages);
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "UTF-8");
+        if (!from.isBlank()) {
+            helper.setFrom(from);
+        }
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody());
+        return mimeMessage;
+    }
+
+    private void failed(EmailMessage message, Exception e) {
+        logger.warn("Sending email {} failed (attempt {}): {}", message.getId(), message.getAttempts(), e.getMessage());
+        message.setLastError(truncate(e.getMessage()));
+        if (message.getAttempts() >= maxAttempts) {
+            message.setStatus(EmailMessage.Status.FAILED);
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, retryBaseSeconds << (message.getAttempts() - 1));
+            message.setStatus(EmailMessage.Status.PENDING);
+            message.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(List<MimeMessage> mimeMessages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        mimeMessages.forEach(mimeMessage -> failures.put(mimeMessage, e));
+        return failures;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
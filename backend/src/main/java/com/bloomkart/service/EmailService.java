@@ -1,20 +1,58 @@
 package com.bloomkart.service;
 
+import com.bloomkart.entity.EmailMessage;
+import com.bloomkart.repository.EmailMessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Queues outgoing mail in the email_queue table; EmailDispatcher sends it in the background.
+ * Called inside a transaction, the message is only sent if that transaction commits.
+ */
 @Service
 public class EmailService {
+
+    private static final String TEMPLATE_LOCATION = "templates/email/";
+
+    @Autowired
+    private EmailMessageRepository emailMessageRepository;
+
     @Autowired
-    private JavaMailSender mailSender;
+    private ApplicationEventPublisher eventPublisher;
 
+    // Parsed templates by name; templates ship with the application, so they never change at runtime
+    private final Map<String, EmailTemplate> templates = new ConcurrentHashMap<>();
+
+    @Transactional
     public void sendEmail(String to, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        EmailMessage message = emailMessageRepository.save(new EmailMessage(to, subject, text));
+        eventPublisher.publishEvent(message);
+    }
+
+    /**
+     * Renders templates/email/{template}.txt with the model and queues the result.
+     */
+    @Transactional
+    public void sendTemplate(String to, String template, Map<String, ?> model) {
+        EmailTemplate compiled = templates.computeIfAbsent(template, EmailService::loadTemplate);
+        sendEmail(to, compiled.renderSubject(model), compiled.renderBody(model));
+    }
+
+    private static EmailTemplate loadTemplate(String name) {
+        ClassPathResource resource = new ClassPathResource(TEMPLATE_LOCATION + name + ".txt");
+        try {
+            return EmailTemplate.parse(resource.getContentAsString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template not found: " + name, e);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.bloomkart.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain-text email template: a "Subject:" line, a blank line, then the body. {{name}}
+ * placeholders are split out once when the template is loaded, so rendering is a single
+ * pass appending literals and values.
+ */
+class EmailTemplate {
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    private final Part[] subject;
+    private final Part[] body;
+
+    private EmailTemplate(Part[] subject, Part[] body) {
+        this.subject = subject;
+        this.body = body;
+    }
+
+    static EmailTemplate parse(String source) {
+        String text = source.replace("\r\n", "\n");
+        int lineEnd = text.indexOf('\n');
+        if (!text.startsWith(SUBJECT_PREFIX) || lineEnd < 0) {
+            throw new IllegalArgumentException("Email template must start with a Subject: line");
+        }
+        String subject = text.substring(SUBJECT_PREFIX.length(), lineEnd).trim();
+        String body = text.substring(lineEnd + 1).stripLeading();
+        return new EmailTemplate(compile(subject), compile(body));
+    }
+
+    String renderSubject(Map<String, ?> model) {
+        return render(subject, model);
+    }
+
+    String renderBody(Map<String, ?> model) {
+        return render(body, model);
+    }
+
+    private static String render(Part[] parts, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(256);
+        for (Part part : parts) {
+            if (part.variable) {
+                Object value = model.get(part.text);
+                out.append(value != null ? value : "");
+            } else {
+                out.append(part.text);
+            }
+        }
+        return out.toString();
+    }
+
+    private static Part[] compile(String text) {
+        List<Part> parts = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf("{{", position);
+            int close = open < 0 ? -1 : text.indexOf("}}", open + 2);
+            if (close < 0) {
+                parts.add(new Part(text.substring(position), false));
+                break;
+            }
+            if (open > position) {
+                parts.add(new Part(text.substring(position, open), false));
+            }
+            parts.add(new Part(text.substring(open + 2, close).trim(), true));
+            position = close + 2;
+        }
+        return parts.toArray(new Part[0]);
+    }
+
+    private static class Part {
+        private final String text;
+        private final boolean variable;
+
+        Part(String text, boolean variable) {
+            this.text = text;
+            this.variable = variable;
+        }
+    }
+}
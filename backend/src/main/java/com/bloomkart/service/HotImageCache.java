@@ -0,0 +1,167 @@
+package com.bloomkart.service;
+
+import com.bloomkart.service.UploadedFileService.FileMetadata;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the content of the most requested uploads in direct (off-heap) buffers, so hot product
+ * images are written from memory instead of the filesystem without growing the Java heap.
+ * Bounded by total bytes; Caffeine's W-TinyLFU decides which files stay resident, and a file is
+ * only loaded on its admit-after'th request, so one-off fetches never allocate a buffer.
+ */
+@Service
+public class HotImageCache {
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${uploads.hot-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${uploads.hot-cache.max-file-bytes:2097152}")
+    private long maxFileBytes;
+
+    @Value("${uploads.hot-cache.admit-after:2}")
+    private int admitAfter;
+
+    // Keyed by the path of the served file, so each width variant is an entry of its own
+    private Cache<Path, Entry> entries;
+
+    // Requests for files not yet resident, counted towards admission
+    private Cache<Path, AtomicInteger> candidates;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Path path, Entry entry) -> entry.content.capacity())
+                .recordStats()
+                .build();
+        candidates = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "uploadsHotCache");
+        Gauge.builder("uploads.hot_cache.hit_ratio", this, HotImageCache::getHitRatio)
+                .description("Share of cacheable upload requests served from memory")
+                .register(meterRegistry);
+        Gauge.builder("uploads.hot_cache.resident_bytes", this, HotImageCache::getResidentBytes)
+                .description("Off-heap bytes held by the upload cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The content of a file as a read-only buffer of its own, or empty when the file is served
+     * from disk: too large, not requested often enough yet, or unreadable.
+     */
+    public Optional<ByteBuffer> get(FileMetadata file) {
+        if (maxBytes <= 0 || file.getSize() == 0 || file.getSize() > maxFileBytes) {
+            return Optional.empty();
+        }
+        Path path = file.getPath();
+        Entry entry = entries.getIfPresent(path);
+        if (entry != null) {
+            if (entry.size == file.getSize() && entry.lastModified == file.getLastModified()) {
+                return Optional.of(entry.content.duplicate());
+            }
+            // The file changed on disk since it was loaded
+            entries.asMap().remove(path, entry);
+        }
+
+        AtomicInteger requests = candidates.get(path, key -> new AtomicInteger());
+        if (requests.incrementAndGet() < admitAfter) {
+            return Optional.empty();
+        }
+        candidates.invalidate(path);
+        // Not through the cache's loading get, which would count the miss a second time
+        Entry loaded = entries.asMap().computeIfAbsent(path, key -> load(file));
+        return loaded != null ? Optional.of(loaded.content.duplicate()) : Optional.empty();
+    }
+
+    /**
+     * Drops image URLs ("/uploads/...") and their width variants from the cache.
+     */
+    public void invalidate(Collection<String> imageUrls) {
+        for (String url : imageUrls) {
+            if (url == null || !url.startsWith(UploadStore.URL_PREFIX)) {
+                continue;
+            }
+            String fileName = url.substring(UploadStore.URL_PREFIX.length());
+            uploadStore.pathOf(fileName).ifPresent(path -> {
+                // Variants are named "<stem>-w<width>.jpg"
+                String variantPrefix = stem(fileName) + "-w";
+                entries.asMap().keySet().removeIf(cached -> cached.equals(path)
+                        || cached.getFileName().toString().startsWith(variantPrefix));
+                candidates.invalidate(path);
+            });
+        }
+    }
+
+    public double getHitRatio() {
+        return entries.stats().hitRate();
+    }
+
+    // Released once the evicted buffers are garbage collected
+    public long getResidentBytes() {
+        return entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private static Entry load(FileMetadata file) {
+        ByteBuffer content = ByteBuffer.allocateDirect((int) file.getSize());
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        if (content.hasRemaining()) {
+            // Shorter than its metadata says; replaced while loading
+            return null;
+        }
+        content.flip();
+        return new Entry(content.asReadOnlyBuffer(), file.getSize(), file.getLastModified());
+    }
+
+    private static String stem(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private static class Entry {
+        private final ByteBuffer content;
+        private final long size;
+        private final long lastModified;
+
+        Entry(ByteBuffer content, long size, long lastModified) {
+            this.content = content;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
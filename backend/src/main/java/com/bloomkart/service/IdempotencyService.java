@@ -0,0 +1,291 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.IdempotencyRecord;
+import com.bloomkart.exception.BusinessException;
+import com.bloomkart.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key. The first request's response is stored in
+ * the idempotency_keys table (fronted by a bounded LRU) and replayed for every retry; a duplicate
+ * arriving while the first is still running waits for its result instead of executing again.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    // Request attribute holding the raw body, set by IdempotentRequestBodyAdvice
+    public static final String RAW_BODY_ATTRIBUTE = IdempotencyService.class.getName() + ".RAW_BODY";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    // Status code of a row whose request is still being executed
+    private static final int IN_PROGRESS = 0;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    // Scope key -> completed response
+    private final Map<String, StoredResponse> completed = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+
+    // Scope key -> result of the request currently executing on this node
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the action, or replays the stored response when the key was seen before.
+     * Without a key the action simply runs. Exceptions are not stored, so a failed request
+     * may be retried with the same key.
+     * @param key The Idempotency-Key header value, may be null.
+     * @param route Method and path of the endpoint, part of the request fingerprint.
+     * @param request The request; its raw body is part of the request fingerprint.
+     * @param action The endpoint logic.
+     */
+    public ResponseEntity<?> execute(String key, String route, HttpServletRequest request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopeKey = currentPrincipal() + ":" + key;
+        String requestHash = fingerprint(route, request);
+
+        StoredResponse cached = completed.get(scopeKey);
+        if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopeKey, result);
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+
+        try {
+            StoredResponse stored = claimOrAwait(scopeKey, requestHash);
+            if (stored != null) {
+                result.complete(stored);
+                return replay(stored, requestHash);
+            }
+
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                // Release the claim so the client can retry with the same key
+                idempotencyRecordRepository.findByScopeKey(scopeKey).ifPresent(idempotencyRecordRepository::delete);
+                result.completeExceptionally(e);
+                throw e;
+            }
+
+            stored = store(scopeKey, requestHash, response);
+            result.complete(stored);
+            return response;
+        } finally {
+            if (!result.isDone()) {
+                result.completeExceptionally(new IllegalStateException("Idempotent request did not complete"));
+            }
+            inFlight.remove(scopeKey, result);
+        }
+    }
+
+    // Expired keys can be reused for a new request
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            logger.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    /**
+     * Inserts an in-progress row for the key. Returns null when this call owns the key, otherwise
+     * the response of whoever owns it, waiting for it if another node is still executing it.
+     */
+    private StoredResponse claimOrAwait(String scopeKey, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByScopeKey(scopeKey);
+            if (existing.isEmpty()) {
+                try {
+                    idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(scopeKey, requestHash, IN_PROGRESS,
+                            null, LocalDateTime.now().plusHours(ttlHours)));
+                    return null;
+                } catch (DataIntegrityViolationException e) {
+                    // Claimed concurrently elsewhere; read it on the next pass
+                    continue;
+                }
+            }
+
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+                idempotencyRecordRepository.delete(record);
+                continue;
+            }
+            if (record.getStatusCode() != IN_PROGRESS) {
+                return remember(scopeKey, record);
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw mismatch();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw stillRunning();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw stillRunning();
+            }
+        }
+    }
+
+    private StoredResponse store(String scopeKey, String requestHash, ResponseEntity<?> response) {
+        String body = response.getBody() != null ? toJson(response.getBody()) : null;
+        IdempotencyRecord record = idempotencyRecordRepository.findByScopeKey(scopeKey)
+                .orElseGet(() -> new IdempotencyRecord(scopeKey, requestHash, IN_PROGRESS, null,
+                        LocalDateTime.now().plusHours(ttlHours)));
+        record.setStatusCode(response.getStatusCode().value());
+        record.setResponseBody(body);
+        return remember(scopeKey, idempotencyRecordRepository.save(record));
+    }
+
+    private StoredResponse remember(String scopeKey, IdempotencyRecord record) {
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                record.getResponseBody(), record.getExpiresAt());
+        completed.put(scopeKey, stored);
+        return stored;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The original request failed; its duplicates fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw mismatch();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.statusCode).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body);
+    }
+
+    // The bytes the client sent: a bound entity would differ between retries (timestamps set on construction)
+    private static String fingerprint(String route, HttpServletRequest request) {
+        Object body = request.getAttribute(RAW_BODY_ATTRIBUTE);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((route + "\n").getBytes(StandardCharsets.UTF_8));
+            if (body instanceof byte[] bytes) {
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static BusinessException mismatch() {
+        return new BusinessException("Idempotency-Key was already used for a different request",
+                HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private static BusinessException stillRunning() {
+        return new BusinessException("A request with this Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+    }
+
+    private static class StoredResponse {
+        private final String requestHash;
+        private final int statusCode;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        StoredResponse(String requestHash, int statusCode, String body, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.statusCode = statusCode;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.bloomkart.service;
+
+import com.bloomkart.config.CacheConfig;
+import com.bloomkart.entity.ImageVariant;
+import com.bloomkart.repository.ImageVariantRepository;
+import com.bloomkart.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Produces downscaled JPEG copies of uploaded images on a bounded worker pool, so listings can
+ * fetch a few dozen kilobytes per card instead of the full upload. Originals are never modified.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final String UPLOADS_PREFIX = "/uploads/";
+    private static final String VARIANT_DIR = "variants";
+    private static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("imageVariantExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${file.upload-dir}")
+    private String uploadPath;
+
+    @Value("${image.variants.widths:320,640,1280}")
+    private int[] widths;
+
+    @Value("${image.variants.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    /**
+     * Queues variant generation for an image URL returned by an upload ("/uploads/...").
+     */
+    public void enqueue(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(UPLOADS_PREFIX)) {
+            return;
+        }
+        String sourceFile = imageUrl.substring(UPLOADS_PREFIX.length());
+        try {
+            executor.execute(() -> generate(sourceFile));
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue full; {} is served at full size until the next backfill", sourceFile);
+        }
+    }
+
+    /**
+     * The smallest variant at least as wide as requested, or empty when the original should be served:
+     * no variants yet, or the request is wider than every variant.
+     */
+    public Optional<ImageVariant> findVariant(String sourceFile, int width) {
+        return cachedVariants(sourceFile).stream()
+                .filter(variant -> variant.getWidth() >= width)
+                .findFirst();
+    }
+
+    // Generates variants for product images uploaded before variants existed, or dropped by a full queue
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Set<String> done = new HashSet<>(imageVariantRepository.findAllSourceFiles());
+        List<String> missing = productRepository.findAllImageUrls().stream()
+                .filter(url -> url.startsWith(UPLOADS_PREFIX))
+                .map(url -> url.substring(UPLOADS_PREFIX.length()))
+                .filter(file -> !done.contains(file))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        logger.info("Generating image variants for {} existing images", missing.size());
+        try {
+            // One task working through the list, so the backfill never fills the queue
+            executor.execute(() -> missing.forEach(this::generate));
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue full; backfill skipped until the next start");
+        }
+    }
+
+    // Variants of one original, narrowest first; an empty list is cached too
+    private List<ImageVariant> cachedVariants(String sourceFile) {
+        return cacheManager.getCache(CacheConfig.IMAGE_VARIANTS).get(sourceFile,
+                () -> List.copyOf(imageVariantRepository.findBySourceFileOrderByWidthAsc(sourceFile)));
+    }
+
+    void generate(String sourceFile) {
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path source = uploadStore.pathOf(sourceFile).orElse(null);
+        if (source == null || !Files.isRegularFile(source)
+                || imageVariantRepository.existsBySourceFile(sourceFile)) {
+            return;
+        }
+        // Variants of stored blobs sit beside them in their shard; older uploads use the shared directory
+        String variantDir = uploadStore.isContentAddressed(sourceFile)
+                ? root.relativize(source.getParent()).toString().replace('\\', '/')
+                : VARIANT_DIR;
+
+        try {
+            BufferedImage original;
+            try (InputStream in = Files.newInputStream(source)) {
+                original = ImageIO.read(in);
+            }
+            if (original == null) {
+                // Not an image format ImageIO can decode; it is always served as uploaded
+                return;
+            }
+
+            Files.createDirectories(root.resolve(variantDir));
+            BufferedImage opaque = flatten(original);
+            List<ImageVariant> variants = new ArrayList<>();
+            for (int width : widths) {
+                if (width >= original.getWidth()) {
+                    continue;
+                }
+                int height = Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth()));
+                String fileName = variantDir + "/" + stem(sourceFile) + "-w" + width + ".jpg";
+                long size = writeJpeg(scale(opaque, width, height), root.resolve(fileName));
+                variants.add(new ImageVariant(sourceFile, width, height, fileName, VARIANT_CONTENT_TYPE, size));
+            }
+
+            if (!variants.isEmpty()) {
+                imageVariantRepository.saveAll(variants);
+                cacheManager.getCache(CacheConfig.IMAGE_VARIANTS).evict(sourceFile);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Generated concurrently by another worker or node
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not generate variants for {}: {}", sourceFile, e.getMessage());
+        }
+    }
+
+    // JPEG has no alpha channel, so transparent areas become white
+    private static BufferedImage flatten(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    // Halves repeatedly before the final step; a single bilinear pass over a large ratio aliases badly
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return resize(current, width, height);
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return resized;
+    }
+
+    // Written next to the target and moved into place, so a reader never sees a partial file
+    private long writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(jpegQuality);
+            params.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(target);
+    }
+
+    private static String stem(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
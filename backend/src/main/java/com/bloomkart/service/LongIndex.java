@@ -0,0 +1,103 @@
+package com.bloomkart.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to dense slot numbers (0, 1, 2, ...).
+ * Report accumulators keep their counters in plain arrays indexed by slot,
+ * so folding millions of rows never boxes a key or allocates per row.
+ */
+class LongIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int[] slots;
+    private long[] keysBySlot;
+    private int size;
+
+    LongIndex() {
+        this(64);
+    }
+
+    LongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        slots = new int[capacity];
+        keysBySlot = new long[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Returns the slot for the key, assigning the next free slot if the key is new.
+     */
+    int slotOf(long key) {
+        int mask = table.length - 1;
+        int pos = mix(key) & mask;
+        while (table[pos] != EMPTY) {
+            if (table[pos] == key) {
+                return slots[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        int slot = size++;
+        table[pos] = key;
+        slots[pos] = slot;
+        if (slot == keysBySlot.length) {
+            keysBySlot = Arrays.copyOf(keysBySlot, slot * 2);
+        }
+        keysBySlot[slot] = key;
+        if (size * 2 > table.length) {
+            grow();
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot for the key, or -1 when it has never been added.
+     */
+    int find(long key) {
+        int mask = table.length - 1;
+        int pos = mix(key) & mask;
+        while (table[pos] != EMPTY) {
+            if (table[pos] == key) {
+                return slots[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    long keyAt(int slot) {
+        return keysBySlot[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldTable = table;
+        int[] oldSlots = slots;
+        table = new long[oldTable.length * 2];
+        Arrays.fill(table, EMPTY);
+        slots = new int[table.length];
+        int mask = table.length - 1;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != EMPTY) {
+                int pos = mix(oldTable[i]) & mask;
+                while (table[pos] != EMPTY) {
+                    pos = (pos + 1) & mask;
+                }
+                table[pos] = oldTable[i];
+                slots[pos] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
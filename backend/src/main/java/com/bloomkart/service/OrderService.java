@@ -1,19 +1,31 @@
 package com.bloomkart.service;
 
+import com.bloomkart.dto.OrderSummary;
+import com.bloomkart.dto.PageCursor;
 import com.bloomkart.entity.Order;
 import com.bloomkart.entity.OrderItem;
+import com.bloomkart.entity.PaymentOutbox;
 import com.bloomkart.entity.Product;
 import com.bloomkart.entity.User;
 import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.PaymentOutboxRepository;
 import com.bloomkart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.hibernate.Hibernate;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
@@ -27,16 +39,47 @@ public class OrderService {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+        return withItems(orderRepository.findAll(pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersByStatus(Order.OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable);
+        return withItems(orderRepository.findByStatus(status, pageable));
     }
 
-    public List<Order> getUserOrders(User user) {
-        return orderRepository.findByUserOrderByCreatedAtDesc(user);
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersAfter(Order.OrderStatus status, PageCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (after == null) {
+            return withItems(orderRepository.findSliceFirst(status, pageable));
+        }
+        return withItems(orderRepository.findSliceAfter(status, after.getSortKeyAsDateTime(), after.getId(), pageable));
+    }
+
+    /**
+     * One page of the user's order history, newest first. Cost depends on the page size only,
+     * not on how many orders the user has placed.
+     */
+    public Slice<OrderSummary> getUserOrderHistory(User user, PageCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (after == null) {
+            return orderRepository.findUserSummariesFirst(user.getId(), pageable);
+        }
+        return orderRepository.findUserSummariesAfter(user.getId(), after.getSortKeyAsDateTime(), after.getId(), pageable);
     }
 
     public Order getOrderById(Long id) {
@@ -44,40 +87,73 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
-    public Order getUserOrderById(Long orderId, User user) {
-        Order order = getOrderById(orderId);
-        if (!order.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Order not found");
-        }
+    // Items and their products, for payment confirmation and its email
+    public Order getOrderWithItemsAndProducts(Long id) {
+        return orderRepository.findWithItemsAndProductsById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+
+    /**
+     * The order with its items, their products and the products' images, ready to serialize.
+     */
+    @Transactional(readOnly = true)
+    public Order getOrderDetails(Long id) {
+        Order order = orderRepository.findWithItemsAndProductsById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        // Images are batch-fetched, so this is one query for all products of the order
+        order.getOrderItems().forEach(item -> Hibernate.initialize(item.getProduct().getImages()));
         return order;
     }
 
+    // Transactional itself: the call to getOrderDetails doesn't go through the proxy
+    @Transactional(readOnly = true)
+    public Order getUserOrderById(Long orderId, User user) {
+        return checkOwner(getOrderDetails(orderId), user);
+    }
+
+    public Order getUserOrderSummary(Long orderId, User user) {
+        Order order = orderRepository.findSummaryById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return checkOwner(order, user);
+    }
+
     @Transactional
     public Order createOrder(Order orderRequest) {
         User currentUser = authService.getCurrentUser();
         orderRequest.setUser(currentUser);
 
-        // Calculate total and validate stock
-        BigDecimal total = BigDecimal.ZERO;
+        // Load every product in the cart with a single query
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : orderRequest.getOrderItems()) {
-            Product product = productRepository.findById(item.getProduct().getId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-
-            if (product.getStockQuantity() < item.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
-            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != quantities.size()) {
+            throw new RuntimeException("Product not found");
+        }
 
+        // Calculate total
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : orderRequest.getOrderItems()) {
+            Product product = products.get(item.getProduct().getId());
+            item.setProduct(product);
             item.setPrice(product.getPrice());
             item.setOrder(orderRequest);
             total = total.add(item.getSubtotal());
-
-            // Update stock
-            product.setStockQuantity(product.getStockQuantity() - item.getQuantity());
-            productRepository.save(product);
         }
 
         orderRequest.setTotalAmount(total);
-        return orderRepository.save(orderRequest);
+        Order savedOrder = orderRepository.save(orderRequest);
+        orderStatsService.recordOrderCreated(savedOrder);
+
+        // Stock is only held here; it is taken from the products table once payment succeeds
+        stockReservationService.reserve(savedOrder.getId(), quantities, products);
+
+        // The gateway order is created asynchronously once this transaction commits
+        PaymentOutbox outboxEntry = paymentOutboxRepository.save(new PaymentOutbox(savedOrder.getId(), total));
+        eventPublisher.publishEvent(outboxEntry);
+        return savedOrder;
     }
 
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
@@ -86,13 +162,57 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
+    @Transactional
+    public Order cancelOrder(Long orderId) {
+        Order order = getOrderById(orderId);
+        if (order.getStatus() != Order.OrderStatus.CANCELLED) {
+            stockReservationService.restore(order);
+            order.setStatus(Order.OrderStatus.CANCELLED);
+        }
+        return orderRepository.save(order);
+    }
+
+    // Cancellation requested by a customer, who may only cancel their own orders
+    @Transactional
+    public Order cancelUserOrder(Long orderId, User user) {
+        checkOwner(getOrderById(orderId), user);
+        return cancelOrder(orderId);
+    }
+
+    /**
+     * Marks a pending order as paid and takes its stock, in one transaction. Returns false without
+     * changing anything when the order is no longer pending, so a repeated verification, or one
+     * arriving after the order was cancelled, never takes stock. Throws, leaving the order unpaid,
+     * when a product no longer has enough stock.
+     */
+    @Transactional
+    public boolean completePayment(Order order, String paymentId) {
+        if (orderRepository.completePayment(order.getId(), paymentId) == 0) {
+            return false;
+        }
+        stockReservationService.confirm(order);
+        order.setPaymentStatus(Order.PaymentStatus.COMPLETED);
+        order.setPaymentId(paymentId);
+        orderStatsService.recordPaymentStatusChange(order, Order.PaymentStatus.PENDING);
+        return true;
+    }
+
+    // Paid but not fulfillable; the order stays out of COMPLETED until an admin refunds or fulfils it
+    public void flagForReview(Long orderId) {
+        orderRepository.flagForReview(orderId);
+    }
+
+    @Transactional
     public Order updatePaymentStatus(Long orderId, Order.PaymentStatus paymentStatus, String paymentId) {
         Order order = getOrderById(orderId);
+        Order.PaymentStatus previousStatus = order.getPaymentStatus();
         order.setPaymentStatus(paymentStatus);
         if (paymentId != null) {
             order.setPaymentId(paymentId);
         }
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        orderStatsService.recordPaymentStatusChange(savedOrder, previousStatus);
+        return savedOrder;
     }
 
     public long getOrderCountByStatus(Order.OrderStatus status) {
@@ -111,4 +231,19 @@ public class OrderService {
     public long getTotalOrderCount() {
         return orderRepository.count();
     }
+
+    private static Order checkOwner(Order order, User user) {
+        if (!order.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Order not found");
+        }
+        return order;
+    }
+
+    // Loads the items of a whole page with one query; the page's entities are initialized in place
+    private <S extends Slice<Order>> S withItems(S orders) {
+        if (orders.hasContent()) {
+            orderRepository.findWithItemsByIdIn(orders.getContent().stream().map(Order::getId).toList());
+        }
+        return orders;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.OrderDailyStats;
+import com.bloomkart.repository.OrderDailyStatsRepository;
+import com.bloomkart.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the order_daily_stats rollup. Rows are adjusted with delta updates as orders are
+ * placed and paid, and rebuilt from the orders table by a nightly reconciliation job.
+ */
+@Service
+public class OrderStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsService.class);
+
+    @Autowired
+    private OrderDailyStatsRepository orderDailyStatsRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${analytics.rollup.reconcile-days:35}")
+    private int reconcileDays;
+
+    private final TransactionTemplate newTransaction;
+
+    // Days whose row is known to exist, so the insert-if-missing step is skipped
+    private final Set<LocalDate> knownDays = ConcurrentHashMap.newKeySet();
+
+    public OrderStatsService(PlatformTransactionManager transactionManager) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public void recordOrderCreated(Order order) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        ensureRow(day);
+        orderDailyStatsRepository.addOrders(day, 1);
+
+        if (order.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
+            orderDailyStatsRepository.addRevenue(day, order.getTotalAmount());
+        }
+    }
+
+    @Transactional
+    public void recordPaymentStatusChange(Order order, Order.PaymentStatus previousStatus) {
+        boolean wasCompleted = previousStatus == Order.PaymentStatus.COMPLETED;
+        boolean isCompleted = order.getPaymentStatus() == Order.PaymentStatus.COMPLETED;
+        if (wasCompleted == isCompleted) {
+            return;
+        }
+
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        ensureRow(day);
+        BigDecimal amount = order.getTotalAmount();
+        orderDailyStatsRepository.addRevenue(day, isCompleted ? amount : amount.negate());
+    }
+
+    public List<OrderDailyStats> getRange(LocalDate startDate, LocalDate endDate) {
+        return orderDailyStatsRepository.findRange(startDate, endDate);
+    }
+
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 30 2 * * ?}")
+    public void reconcileRecentDays() {
+        reconcile(LocalDate.now().minusDays(reconcileDays));
+    }
+
+    // Backfill the whole history the first time the rollup table is empty
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (orderDailyStatsRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime firstOrder = orderRepository.findFirstOrderDate();
+        if (firstOrder != null) {
+            reconcile(firstOrder.toLocalDate());
+        }
+    }
+
+    /**
+     * Recomputes every day from {@code fromDate} to today with one grouped scan of the orders table.
+     */
+    @Transactional
+    public void reconcile(LocalDate fromDate) {
+        Map<LocalDate, Object[]> aggregates = new HashMap<>();
+        for (Object[] row : orderRepository.aggregateDailyStatsSince(fromDate.atStartOfDay())) {
+            aggregates.put(toLocalDate(row[0]), row);
+        }
+
+        Map<LocalDate, OrderDailyStats> existing = new HashMap<>();
+        for (OrderDailyStats stats : orderDailyStatsRepository.findRange(fromDate, LocalDate.now())) {
+            existing.put(stats.getDate(), stats);
+        }
+
+        List<OrderDailyStats> rows = new ArrayList<>();
+        for (LocalDate day = fromDate; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            Object[] row = aggregates.get(day);
+            OrderDailyStats stats = existing.getOrDefault(day, new OrderDailyStats(day));
+            if (row == null && !existing.containsKey(day)) {
+                continue;
+            }
+            stats.setOrders(row != null ? ((Number) row[1]).longValue() : 0);
+            stats.setRevenue(row != null ? toBigDecimal(row[2]) : BigDecimal.ZERO);
+            stats.setUpdatedAt(LocalDateTime.now());
+            rows.add(stats);
+        }
+        orderDailyStatsRepository.saveAll(rows);
+        rows.forEach(stats -> knownDays.add(stats.getDate()));
+        logger.info("Reconciled order_daily_stats for {} days since {}", rows.size(), fromDate);
+    }
+
+    private void ensureRow(LocalDate day) {
+        if (knownDays.contains(day)) {
+            return;
+        }
+        // Insert in its own transaction so a concurrent insert of the same day can't poison the caller's
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!orderDailyStatsRepository.existsById(day)) {
+                    orderDailyStatsRepository.saveAndFlush(new OrderDailyStats(day));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another order created the row first
+        }
+        knownDays.add(day);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
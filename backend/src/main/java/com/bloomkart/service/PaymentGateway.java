@@ -0,0 +1,15 @@
+package com.bloomkart.service;
+
+/**
+ * Creates orders on the payment gateway. Implemented by Razorpay in production and by a stub in tests.
+ */
+public interface PaymentGateway {
+
+    /**
+     * @param amountInPaise Order total in the smallest currency unit.
+     * @param currency ISO currency code, e.g. INR.
+     * @param receipt Our reference for the order.
+     * @return The gateway's order id.
+     */
+    String createOrder(long amountInPaise, String currency, String receipt);
+}
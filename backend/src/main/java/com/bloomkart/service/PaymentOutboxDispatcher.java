@@ -0,0 +1,125 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.PaymentOutbox;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.PaymentOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the payment outbox: claims pending entries, creates the gateway order on a worker
+ * thread and patches the order's paymentId. Failed calls are retried with exponential backoff.
+ */
+@Service
+public class PaymentOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentOutboxDispatcher.class);
+
+    private static final int BATCH_SIZE = 50;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    @Qualifier("paymentOutboxExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${payment.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // Start work as soon as the order transaction commits instead of waiting for the next poll
+    @TransactionalEventListener
+    public void onOutboxEntryCommitted(PaymentOutbox entry) {
+        try {
+            executor.execute(this::drain);
+        } catch (TaskRejectedException e) {
+            // Workers are saturated; the scheduled poll will pick the entry up
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        paymentOutboxRepository.requeueStale(LocalDateTime.now().minusMinutes(5));
+        drain();
+    }
+
+    public synchronized void drain() {
+        int capacity = executor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        if (capacity <= 0) {
+            return;
+        }
+
+        List<Long> ready = paymentOutboxRepository.findReadyIds(LocalDateTime.now(),
+                PageRequest.of(0, Math.min(BATCH_SIZE, capacity)));
+        for (Long id : ready) {
+            if (paymentOutboxRepository.claim(id, LocalDateTime.now()) != 1) {
+                continue;
+            }
+            try {
+                executor.execute(() -> process(id));
+            } catch (TaskRejectedException e) {
+                // The queue filled up since its capacity was read; the next drain picks the entry up again
+                paymentOutboxRepository.unclaim(id);
+                return;
+            }
+        }
+    }
+
+    private void process(Long id) {
+        PaymentOutbox entry = paymentOutboxRepository.findById(id).orElse(null);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            String paymentOrderId = paymentService.createPaymentOrder(entry.getOrderId(), entry.getAmount());
+            orderRepository.updatePaymentId(entry.getOrderId(), paymentOrderId);
+            entry.setStatus(PaymentOutbox.Status.DONE);
+            entry.setLastError(null);
+        } catch (Exception e) {
+            logger.warn("Payment order creation failed for order {} (attempt {}): {}",
+                    entry.getOrderId(), entry.getAttempts(), e.getMessage());
+            entry.setLastError(truncate(e.getMessage()));
+            if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(PaymentOutbox.Status.FAILED);
+                orderRepository.updatePaymentStatus(entry.getOrderId(), Order.PaymentStatus.FAILED);
+                stockReservationService.release(entry.getOrderId());
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << entry.getAttempts());
+                entry.setStatus(PaymentOutbox.Status.PENDING);
+                entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            }
+        }
+        paymentOutboxRepository.save(entry);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
@@ -1,56 +1,49 @@
 package com.bloomkart.service;
 
 import com.bloomkart.entity.Order;
-import com.bloomkart.repository.OrderRepository;
-import com.razorpay.RazorpayClient;
+import com.bloomkart.entity.OrderItem;
+import com.bloomkart.exception.BusinessException;
 import com.razorpay.RazorpayException;
 import com.razorpay.Utils;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class PaymentService {
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
     @Value("${razorpay.key.secret}")
     private String razorpayKeySecret;
 
     private final OrderService orderService;
+    private final StockReservationService stockReservationService;
+    private final PaymentGateway paymentGateway;
+    private final EmailService emailService;
 
-    public PaymentService(OrderService orderService) {
+    public PaymentService(OrderService orderService, StockReservationService stockReservationService,
+                          PaymentGateway paymentGateway, EmailService emailService) {
         this.orderService = orderService;
+        this.stockReservationService = stockReservationService;
+        this.paymentGateway = paymentGateway;
+        this.emailService = emailService;
     }
 
     /**
-     * Creates a Razorpay order and returns its order ID
+     * Creates a gateway order for one of our orders and returns its order ID.
+     * Called from the payment outbox workers, never on the request thread.
      */
-    public String createPaymentOrder(Order order) {
-        try {
-            RazorpayClient razorpay = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-            JSONObject options = new JSONObject();
-            options.put("amount", order.getTotalAmount().multiply(BigDecimal.valueOf(100)).longValue()); // in paise
-            options.put("currency", "INR");
-            options.put("receipt", "order_rcptid_" + order.getId());
-            options.put("payment_capture", 1); // Auto-capture payment
-
-            com.razorpay.Order razorpayOrder = razorpay.orders.create(options);
-
-            // Save Razorpay order ID to our database for later verification
-            order.setPaymentId(razorpayOrder.get("id"));
-            order.setPaymentStatus(Order.PaymentStatus.PENDING);
-            orderService.createOrder(order);
-
-            return razorpayOrder.get("id");
-        } catch (RazorpayException e) {
-            throw new RuntimeException("Failed to create payment order", e);
-        }
+    public String createPaymentOrder(Long orderId, BigDecimal totalAmount) {
+        long amountInPaise = totalAmount.multiply(BigDecimal.valueOf(100)).longValue();
+        return paymentGateway.createOrder(amountInPaise, "INR", "order_rcptid_" + orderId);
     }
 
     /**
@@ -63,8 +56,7 @@ public class PaymentService {
             attributes.put("razorpay_payment_id", razorpayPaymentId);
             attributes.put("razorpay_signature", razorpaySignature);
 
-            Utils.verifyPaymentSignature(attributes, razorpayKeySecret);
-            return true;
+            return Utils.verifyPaymentSignature(attributes, razorpayKeySecret);
         } catch (RazorpayException e) {
             return false;
         }
@@ -74,17 +66,74 @@ public class PaymentService {
      * Final step after successful payment
      */
     public void processPaymentSuccess(Long orderId, String razorpayPaymentId, String razorpaySignature) {
-        Order order = orderService.getOrderById(orderId);
+        Order order = orderService.getOrderWithItemsAndProducts(orderId);
 
         if (order == null || order.getPaymentId() == null) {
             throw new RuntimeException("Order or Razorpay order ID not found");
         }
 
+        // Once paid, paymentId holds the gateway payment id, so a repeat can't be verified again
+        if (order.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
+            if (order.getPaymentId().equals(razorpayPaymentId)) {
+                return;
+            }
+            throw new BusinessException("Order is already paid", HttpStatus.CONFLICT);
+        }
+
         if (verifyPayment(order.getPaymentId(), razorpayPaymentId, razorpaySignature)) {
-            orderService.updatePaymentStatus(orderId, Order.PaymentStatus.COMPLETED, razorpayPaymentId);
+            boolean completed;
+            try {
+                completed = orderService.completePayment(order, razorpayPaymentId);
+            } catch (BusinessException e) {
+                // Sold out while the customer was paying; nothing was taken and the order stays unpaid
+                stockReservationService.release(orderId);
+                flagForReview(orderId, e.getMessage());
+                throw new BusinessException("Some items sold out before the payment completed; the payment will be refunded",
+                        HttpStatus.CONFLICT);
+            }
+            if (completed) {
+                sendConfirmation(order);
+                return;
+            }
+            // No longer pending: paid by a concurrent verification of this payment, or cancelled,
+            // failed or expired before it arrived
+            Order current = orderService.getOrderById(orderId);
+            if (current.getPaymentStatus() == Order.PaymentStatus.COMPLETED
+                    && razorpayPaymentId.equals(current.getPaymentId())) {
+                return;
+            }
+            if (current.getStatus() == Order.OrderStatus.CANCELLED) {
+                flagForReview(orderId, "order was cancelled before the payment arrived");
+                throw new BusinessException("Order was cancelled; the payment will be refunded", HttpStatus.CONFLICT);
+            }
+            flagForReview(orderId, "order payment was " + current.getPaymentStatus() + " when the payment arrived");
+            throw new BusinessException("Order is no longer awaiting payment; the payment will be refunded",
+                    HttpStatus.CONFLICT);
         } else {
+            stockReservationService.release(orderId);
             orderService.updatePaymentStatus(orderId, Order.PaymentStatus.FAILED, null);
             throw new RuntimeException("Payment verification failed");
         }
     }
+
+    private void flagForReview(Long orderId, String reason) {
+        logger.error("Paid order {} could not be fulfilled and needs review: {}", orderId, reason);
+        orderService.flagForReview(orderId);
+    }
+
+    // Queued only; the mail dispatcher sends it after the request has returned
+    private void sendConfirmation(Order order) {
+        String items = order.getOrderItems().stream()
+                .map(PaymentService::itemLine)
+                .collect(Collectors.joining("\n"));
+        emailService.sendTemplate(order.getUser().getEmail(), "order-confirmation", Map.of(
+                "name", order.getUser().getName(),
+                "orderId", order.getId(),
+                "items", items,
+                "total", order.getTotalAmount()));
+    }
+
+    private static String itemLine(OrderItem item) {
+        return "- " + item.getQuantity() + " x " + item.getProduct().getName() + "  Rs. " + item.getSubtotal();
+    }
 }
@@ -0,0 +1,290 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.Product;
+import com.bloomkart.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory catalog index used by the storefront product search.
+ * Keeps token postings for name/description, one bitmap per category,
+ * a price-sorted ordinal array and a bitset of fresh products so that
+ * filtered searches never need a LIKE scan over the products table.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Dense ordinals so every filter can be expressed as a BitSet
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final Map<String, BitSet> categories = new HashMap<>();
+    private final BitSet fresh = new BitSet();
+
+    private int[] priceOrder = new int[0];
+
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            entries.clear();
+            freeOrdinals.clear();
+            live.clear();
+            postings.clear();
+            categories.clear();
+            fresh.clear();
+            priceOrder = new int[0];
+            products.forEach(this::put);
+            priceOrder = live.stream()
+                    .boxed()
+                    .sorted(Comparator.comparing(ord -> entries.get(ord).price))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built with {} products", products.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            insertPrice(put(product));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all matching products in ascending id order.
+     * Null arguments are ignored, mirroring ProductRepository.findWithFilters.
+     */
+    public List<Long> search(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                             Boolean isFresh, String search) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+
+            if (category != null) {
+                // Case-insensitive, like the MySQL collation the SQL filter ran under
+                BitSet categoryBits = categories.get(category.toLowerCase(Locale.ROOT));
+                if (categoryBits == null) {
+                    return Collections.emptyList();
+                }
+                result.and(categoryBits);
+            }
+
+            if (isFresh != null) {
+                if (isFresh) {
+                    result.and(fresh);
+                } else {
+                    result.andNot(fresh);
+                }
+            }
+
+            if (minPrice != null || maxPrice != null) {
+                result.and(priceRange(minPrice, maxPrice));
+            }
+
+            if (search != null) {
+                matchText(search.toLowerCase(Locale.ROOT), result);
+            }
+
+            List<Long> ids = new ArrayList<>(result.cardinality());
+            for (int ord = result.nextSetBit(0); ord >= 0; ord = result.nextSetBit(ord + 1)) {
+                ids.add(entries.get(ord).id);
+            }
+            Collections.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int put(Product product) {
+        int ord = freeOrdinals.isEmpty() ? entries.size() : freeOrdinals.pop();
+        Entry entry = new Entry(product);
+        if (ord == entries.size()) {
+            entries.add(entry);
+        } else {
+            entries.set(ord, entry);
+        }
+        ordinals.put(entry.id, ord);
+        live.set(ord);
+
+        for (String token : entry.tokens) {
+            postings.computeIfAbsent(token, k -> new BitSet()).set(ord);
+        }
+        categories.computeIfAbsent(entry.category, k -> new BitSet()).set(ord);
+        if (entry.fresh) {
+            fresh.set(ord);
+        }
+        return ord;
+    }
+
+    private void remove(Long productId) {
+        Integer ord = ordinals.remove(productId);
+        if (ord == null) {
+            return;
+        }
+        Entry entry = entries.get(ord);
+        for (String token : entry.tokens) {
+            BitSet bits = postings.get(token);
+            if (bits != null) {
+                bits.clear(ord);
+                if (bits.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+        BitSet categoryBits = categories.get(entry.category);
+        if (categoryBits != null) {
+            categoryBits.clear(ord);
+            if (categoryBits.isEmpty()) {
+                categories.remove(entry.category);
+            }
+        }
+        fresh.clear(ord);
+        live.clear(ord);
+        removePrice(ord);
+        entries.set(ord, null);
+        freeOrdinals.push(ord);
+    }
+
+    private void insertPrice(int ord) {
+        int pos = lowerBound(entries.get(ord).price, true);
+        int[] updated = new int[priceOrder.length + 1];
+        System.arraycopy(priceOrder, 0, updated, 0, pos);
+        updated[pos] = ord;
+        System.arraycopy(priceOrder, pos, updated, pos + 1, priceOrder.length - pos);
+        priceOrder = updated;
+    }
+
+    private void removePrice(int ord) {
+        for (int i = 0; i < priceOrder.length; i++) {
+            if (priceOrder[i] == ord) {
+                int[] updated = new int[priceOrder.length - 1];
+                System.arraycopy(priceOrder, 0, updated, 0, i);
+                System.arraycopy(priceOrder, i + 1, updated, i, priceOrder.length - i - 1);
+                priceOrder = updated;
+                return;
+            }
+        }
+    }
+
+    private BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        int from = minPrice == null ? 0 : lowerBound(minPrice, false);
+        int to = maxPrice == null ? priceOrder.length : lowerBound(maxPrice, true);
+        BitSet bits = new BitSet();
+        for (int i = from; i < to; i++) {
+            bits.set(priceOrder[i]);
+        }
+        return bits;
+    }
+
+    // First position whose price is >= value (or > value when inclusive is set)
+    private int lowerBound(BigDecimal value, boolean inclusive) {
+        int low = 0;
+        int high = priceOrder.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = entries.get(priceOrder[mid]).price.compareTo(value);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void matchText(String query, BitSet result) {
+        // Every alphanumeric run of the query must occur inside some indexed token;
+        // the postings of those tokens narrow the candidates before the exact check.
+        for (String queryToken : tokenize(query)) {
+            BitSet candidates = new BitSet();
+            for (Map.Entry<String, BitSet> posting : postings.entrySet()) {
+                if (posting.getKey().contains(queryToken)) {
+                    candidates.or(posting.getValue());
+                }
+            }
+            result.and(candidates);
+        }
+        for (int ord = result.nextSetBit(0); ord >= 0; ord = result.nextSetBit(ord + 1)) {
+            Entry entry = entries.get(ord);
+            if (!entry.name.contains(query) && !entry.description.contains(query)) {
+                result.clear(ord);
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static class Entry {
+        final Long id;
+        final String name;
+        final String description;
+        final String category;
+        final BigDecimal price;
+        final boolean fresh;
+        final Set<String> tokens;
+
+        Entry(Product product) {
+            this.id = product.getId();
+            this.name = product.getName() != null ? product.getName().toLowerCase(Locale.ROOT) : "";
+            this.description = product.getDescription() != null ? product.getDescription().toLowerCase(Locale.ROOT) : "";
+            this.category = product.getCategory() != null ? product.getCategory().toLowerCase(Locale.ROOT) : "";
+            this.price = product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+            this.fresh = product.isFresh();
+            this.tokens = tokenize(this.name + " " + this.description);
+        }
+    }
+}
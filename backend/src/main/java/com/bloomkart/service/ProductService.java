@@ -1,21 +1,37 @@
 package com.bloomkart.service;
 
+import com.bloomkart.config.CacheConfig;
+import com.bloomkart.dto.PageCursor;
+import com.bloomkart.dto.ProductCard;
 import com.bloomkart.entity.Product;
 import com.bloomkart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -23,31 +39,99 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
-    @Value("${file.upload-dir}")
-    private String uploadPath;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private HotImageCache hotImageCache;
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public Page<ProductCard> getAllProducts(Pageable pageable) {
+        return withImages(productRepository.findAllCards(pageable));
     }
 
+    /**
+     * Cached read for the storefront. The returned instance is a detached snapshot shared
+     * between callers, so it must not be modified; writes go through the mutators below.
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return snapshot(findProduct(id));
+    }
+
+    public Page<ProductCard> getProductsWithFilters(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                                  Boolean isFresh, String search, Pageable pageable) {
+        if (!productSearchIndex.isReady() || pageable.getSort().isSorted()) {
+            return withImages(productRepository.findCardsWithFilters(category, minPrice, maxPrice, isFresh, search, pageable));
+        }
+
+        List<Long> matchingIds = productSearchIndex.search(category, minPrice, maxPrice, isFresh, search);
+        int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        int to = Math.min(from + pageable.getPageSize(), matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(from, to);
+
+        // Only the requested page is loaded, by primary key, in index order
+        return new PageImpl<>(findCards(pageIds), pageable, matchingIds.size());
+    }
+
+    /**
+     * Keyset variant of getProductsWithFilters: the next {@code size} matches after the cursor, in id order.
+     */
+    public Slice<ProductCard> getProductsWithFiltersAfter(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                                         Boolean isFresh, String search, PageCursor after, int size) {
+        long afterId = after != null ? after.getId() : 0L;
+        if (!productSearchIndex.isReady()) {
+            return withImages(productRepository.findCardSliceWithFiltersAfter(category, minPrice, maxPrice, isFresh,
+                    search, afterId, PageRequest.of(0, size)));
+        }
+
+        List<Long> matchingIds = productSearchIndex.search(category, minPrice, maxPrice, isFresh, search);
+        int position = Collections.binarySearch(matchingIds, afterId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        int to = Math.min(from + size, matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(from, to);
+
+        return new SliceImpl<>(findCards(pageIds), PageRequest.of(0, size), to < matchingIds.size());
+    }
+
+    public Slice<ProductCard> getProductsAfter(PageCursor after, int size) {
+        return withImages(productRepository.findCardSliceAfter(after != null ? after.getId() : 0L, PageRequest.of(0, size)));
+    }
+
+    public Slice<ProductCard> getProductsByCategoryAfter(String category, PageCursor after, int size) {
+        return withImages(productRepository.findCardSliceByCategoryAfter(category, after != null ? after.getId() : 0L, PageRequest.of(0, size)));
     }
 
-    public Page<Product> getProductsWithFilters(String category, BigDecimal minPrice, BigDecimal maxPrice,
-                                              Boolean isFresh, String search, Pageable pageable) {
-        return productRepository.findWithFilters(category, minPrice, maxPrice, isFresh, search, pageable);
+    public Slice<ProductCard> searchProductsAfter(String search, PageCursor after, int size) {
+        return withImages(productRepository.findCardSliceByNameAfter(search, after != null ? after.getId() : 0L, PageRequest.of(0, size)));
     }
 
-    public List<Product> getFeaturedProducts() {
-        return productRepository.findByIsFeaturedTrue();
+    @Cacheable(cacheNames = CacheConfig.FEATURED_PRODUCTS)
+    public List<ProductCard> getFeaturedProducts() {
+        List<ProductCard> cards = productRepository.findFeaturedCards();
+        attachImages(cards);
+        return Collections.unmodifiableList(cards);
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES)
     public List<String> getAllCategories() {
-        return productRepository.findAllCategories();
+        return List.copyOf(productRepository.findAllCategories());
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
+    @Transactional
     public Product createProduct(Product product, List<MultipartFile> images) {
         if (images != null && !images.isEmpty()) {
             List<String> imageUrls = saveImages(images);
@@ -56,11 +140,21 @@ public class ProductService {
                 product.setMainImage(imageUrls.get(0));
             }
         }
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        List<String> imageUrls = savedProduct.getImages() != null ? List.copyOf(savedProduct.getImages()) : List.of();
+        uploadStore.retain(imageUrls);
+        afterCommit(() -> saved(savedProduct, imageUrls));
+        return savedProduct;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
+    @Transactional
     public Product updateProduct(Long id, Product product, List<MultipartFile> newImages) {
-        Product existingProduct = getProductById(id);
+        Product existingProduct = findProduct(id);
         
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
@@ -70,37 +164,106 @@ public class ProductService {
         existingProduct.setFresh(product.isFresh());
         existingProduct.setFeatured(product.isFeatured());
 
+        List<String> newImageUrls = List.of();
         if (newImages != null && !newImages.isEmpty()) {
-            List<String> newImageUrls = saveImages(newImages);
+            newImageUrls = saveImages(newImages);
             List<String> existingImages = existingProduct.getImages();
             existingImages.addAll(newImageUrls);
             existingProduct.setImages(existingImages);
         }
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        uploadStore.retain(newImageUrls);
+        List<String> addedImageUrls = newImageUrls;
+        afterCommit(() -> saved(savedProduct, addedImageUrls));
+        return savedProduct;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
+    })
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        List<String> imageUrls = productRepository.findImagesByProductIds(List.of(id)).stream()
+                .map(row -> (String) row[1])
+                .toList();
         productRepository.delete(product);
+        productSearchIndex.delete(id);
+        // Files no longer referenced by any product are removed by the upload sweep
+        uploadStore.release(imageUrls);
+        hotImageCache.invalidate(imageUrls);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true)
+    })
     public void updateStock(Long productId, Integer quantity) {
-        Product product = getProductById(productId);
+        Product product = findProduct(productId);
         product.setStockQuantity(product.getStockQuantity() - quantity);
-        productRepository.save(product);
+        productSearchIndex.index(productRepository.save(product));
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true)
+    })
+    public Product setStock(Long productId, Integer stockQuantity) {
+        Product product = findProduct(productId);
+        product.setStockQuantity(stockQuantity);
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
+        return savedProduct;
+    }
+
+    /**
+     * Drops cached copies of products whose stock was changed outside this service.
+     * Inside a transaction the eviction waits for the commit, so a concurrent read
+     * can't re-cache the old stock.
+     */
+    public void evictCachedProducts(Collection<Long> productIds) {
+        Runnable evict = () -> {
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            productIds.forEach(products::evict);
+            cacheManager.getCache(CacheConfig.FEATURED_PRODUCTS).clear();
+        };
+        afterCommit(evict);
+    }
+
+    // Only committed products are searchable, and a rolled back save leaves the index untouched.
+    // A blob swept and uploaded again is a new file under the old name, so cached copies are dropped
+    private void saved(Product product, List<String> imageUrls) {
+        productSearchIndex.index(product);
+        hotImageCache.invalidate(imageUrls);
+        imageUrls.forEach(imageVariantService::enqueue);
+    }
+
+    // Runs the action once the current transaction commits, or right away outside one
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     public long getTotalProductCount() {
         return productRepository.count();
     }
 
-    public Page<Product> getProductsByCategory(String category, Pageable pageable) {
-        return productRepository.findByCategory(category, pageable);
+    public Page<ProductCard> getProductsByCategory(String category, Pageable pageable) {
+        return withImages(productRepository.findCardsByCategory(category, pageable));
     }
 
-    public Page<Product> searchProducts(String search, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCase(search, pageable);
+    public Page<ProductCard> searchProducts(String search, Pageable pageable) {
+        return withImages(productRepository.findCardsByName(search, pageable));
     }
 
     public long getOutOfStockCount() {
@@ -115,37 +278,67 @@ public class ProductService {
         return productRepository.countInStock();
     }
 
-    public Page<Product> getLowStockProducts(Pageable pageable) {
-        return productRepository.findLowStockProducts(pageable);
+    public Page<ProductCard> getLowStockProducts(Pageable pageable) {
+        return withImages(productRepository.findLowStockCards(pageable));
     }
 
-    public Page<Product> getOutOfStockProducts(Pageable pageable) {
-        return productRepository.findOutOfStockProducts(pageable);
+    public Page<ProductCard> getOutOfStockProducts(Pageable pageable) {
+        return withImages(productRepository.findOutOfStockCards(pageable));
     }
 
-    private List<String> saveImages(List<MultipartFile> images) {
-        try {
-            Path uploadDir = Paths.get(uploadPath);
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
 
-            return images.stream()
-                    .map(this::saveImage)
-                    .toList();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save images", e);
-        }
+    // Cards for the given ids, in the order of the ids
+    private List<ProductCard> findCards(List<Long> ids) {
+        Map<Long, ProductCard> cardsById = productRepository.findCardsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        List<ProductCard> cards = ids.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        attachImages(cards);
+        return cards;
+    }
+
+    private <S extends Slice<ProductCard>> S withImages(S slice) {
+        attachImages(slice.getContent());
+        return slice;
     }
 
-    private String saveImage(MultipartFile image) {
-        try {
-            String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            Path filePath = Paths.get(uploadPath, fileName);
-            Files.copy(image.getInputStream(), filePath);
-            return "/uploads/" + fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save image", e);
+    // Fills in the images of a whole page with one query instead of one per product
+    private void attachImages(List<ProductCard> cards) {
+        if (cards.isEmpty()) {
+            return;
         }
+        Map<Long, ProductCard> cardsById = cards.stream()
+                .collect(Collectors.toMap(ProductCard::getId, Function.identity()));
+        for (Object[] row : productRepository.findImagesByProductIds(cardsById.keySet())) {
+            cardsById.get((Long) row[0]).getImages().add((String) row[1]);
+        }
+    }
+
+    // Detached copy with the image list loaded, safe to keep in the cache after the session closes
+    private static Product snapshot(Product product) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice(),
+                product.getCategory(), product.getStockQuantity());
+        copy.setId(product.getId());
+        copy.setMainImage(product.getMainImage());
+        copy.setImages(product.getImages() != null ? new ArrayList<>(product.getImages()) : null);
+        copy.setFresh(product.isFresh());
+        copy.setFeatured(product.isFeatured());
+        copy.setRatingSum(product.getRatingSum());
+        copy.setRatingCount(product.getRatingCount());
+        copy.setRatingHistogram(product.getRatingHistogram());
+        copy.setCreatedAt(product.getCreatedAt());
+        copy.setUpdatedAt(product.getUpdatedAt());
+        return copy;
+    }
+
+    // Stored in parallel; files new to the store are removed again if the product save rolls back
+    private List<String> saveImages(List<MultipartFile> images) {
+        return uploadStore.storeAll(images);
     }
 }
@@ -0,0 +1,49 @@
+package com.bloomkart.service;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    @Value("${razorpay.key.id}")
+    private String razorpayKeyId;
+
+    @Value("${razorpay.key.secret}")
+    private String razorpayKeySecret;
+
+    // One client for the application instead of one per order
+    private volatile RazorpayClient client;
+
+    @Override
+    public String createOrder(long amountInPaise, String currency, String receipt) {
+        try {
+            JSONObject options = new JSONObject();
+            options.put("amount", amountInPaise);
+            options.put("currency", currency);
+            options.put("receipt", receipt);
+            options.put("payment_capture", 1); // Auto-capture payment
+
+            com.razorpay.Order razorpayOrder = getClient().orders.create(options);
+            return razorpayOrder.get("id");
+        } catch (RazorpayException e) {
+            throw new RuntimeException("Failed to create payment order", e);
+        }
+    }
+
+    private RazorpayClient getClient() throws RazorpayException {
+        RazorpayClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+                }
+                current = client;
+            }
+        }
+        return current;
+    }
+}
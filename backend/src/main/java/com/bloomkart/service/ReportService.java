@@ -0,0 +1,190 @@
+package com.bloomkart.service;
+
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Builds the admin reports in a single forward-only pass over the full history.
+ * Rows are streamed as scalar projections and folded into array-backed accumulators,
+ * so memory stays bounded by the number of days, products or cities reported on
+ * rather than the number of orders.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public Map<String, Object> getSalesReport(int days) {
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
+
+        // One slot per day from startDate to endDate; amounts are kept in paise
+        long[] orders = new long[days + 1];
+        long[] revenue = new long[days + 1];
+        long startDay = startDate.toEpochDay();
+
+        try (Stream<Object[]> rows = orderRepository.streamOrderTotalsBetween(
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            rows.forEach(row -> {
+                int slot = (int) (((LocalDateTime) row[0]).toLocalDate().toEpochDay() - startDay);
+                orders[slot]++;
+                revenue[slot] += toPaise((BigDecimal) row[1]);
+            });
+        }
+
+        List<Map<String, Object>> salesData = new ArrayList<>();
+        for (int slot = 1; slot <= days; slot++) {
+            Map<String, Object> dayData = new HashMap<>();
+            dayData.put("date", startDate.plusDays(slot).format(DateTimeFormatter.ISO_LOCAL_DATE));
+            dayData.put("orders", (int) orders[slot]);
+            dayData.put("revenue", fromPaise(revenue[slot]).doubleValue());
+            dayData.put("avgOrder", average(revenue[slot], orders[slot]).doubleValue());
+            salesData.add(dayData);
+        }
+
+        long totalOrders = Arrays.stream(orders).sum();
+        long totalRevenue = Arrays.stream(revenue).sum();
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("salesReport", salesData);
+        report.put("totalOrders", (int) totalOrders);
+        report.put("totalRevenue", fromPaise(totalRevenue).doubleValue());
+        report.put("avgOrderValue", average(totalRevenue, totalOrders).doubleValue());
+        return report;
+    }
+
+    public Map<String, Object> getUserReport() {
+        long[] registrations = new long[12];
+        try (Stream<LocalDateTime> rows = userRepository.streamRegistrationDates()) {
+            rows.forEach(createdAt -> registrations[createdAt.getMonthValue() - 1]++);
+        }
+
+        List<Map<String, Object>> userData = new ArrayList<>();
+        for (Month month : Month.values()) {
+            long count = registrations[month.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            Map<String, Object> monthData = new HashMap<>();
+            monthData.put("month", month.toString());
+            monthData.put("newUsers", (int) count);
+            monthData.put("activeUsers", (int) count); // Simplified
+            monthData.put("totalRevenue", 0.0); // Would need order data per user
+            userData.add(monthData);
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("userReport", userData);
+        report.put("totalUsers", (int) Arrays.stream(registrations).sum());
+        return report;
+    }
+
+    public Map<String, Object> getProductReport() {
+        LongIndex productSlots = new LongIndex();
+        long[] sales = new long[64];
+        long[] revenue = new long[64];
+
+        try (Stream<Object[]> rows = orderRepository.streamCompletedOrderItems()) {
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                int slot = productSlots.slotOf((Long) row[0]);
+                if (slot == sales.length) {
+                    sales = Arrays.copyOf(sales, slot * 2);
+                    revenue = Arrays.copyOf(revenue, slot * 2);
+                }
+                sales[slot]++;
+                revenue[slot] += toPaise((BigDecimal) row[2]) * (Integer) row[1];
+            }
+        }
+
+        List<Map<String, Object>> productData = new ArrayList<>();
+        try (Stream<Object[]> rows = productRepository.streamStockSummary()) {
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                int slot = productSlots.find((Long) row[0]);
+                Map<String, Object> data = new HashMap<>();
+                data.put("name", row[1]);
+                data.put("sales", slot >= 0 ? (int) sales[slot] : 0);
+                data.put("revenue", slot >= 0 ? fromPaise(revenue[slot]).doubleValue() : 0.0);
+                long ratingSum = (Long) row[3];
+                int ratingCount = (Integer) row[4];
+                data.put("rating", ratingCount > 0 ? Math.round(ratingSum * 10.0 / ratingCount) / 10.0 : 0.0);
+                data.put("stock", row[2]);
+                productData.add(data);
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("productReport", productData);
+        report.put("totalProducts", productData.size());
+        return report;
+    }
+
+    public Map<String, Object> getLocationReport() {
+        Map<String, CityTotals> cities = new HashMap<>();
+        try (Stream<Object[]> rows = orderRepository.streamOrderLocations()) {
+            rows.forEach(row -> {
+                CityTotals totals = cities.computeIfAbsent((String) row[0], city -> new CityTotals());
+                totals.orders++;
+                totals.revenue += toPaise((BigDecimal) row[2]);
+                totals.customers.slotOf((Long) row[1]);
+            });
+        }
+
+        List<Map<String, Object>> locationData = new ArrayList<>();
+        cities.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().revenue, a.getValue().revenue))
+                .forEach(entry -> {
+                    CityTotals totals = entry.getValue();
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("city", entry.getKey());
+                    data.put("orders", (int) totals.orders);
+                    data.put("revenue", fromPaise(totals.revenue).doubleValue());
+                    data.put("customers", (long) totals.customers.size());
+                    locationData.add(data);
+                });
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("locationReport", locationData);
+        return report;
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static BigDecimal average(long paise, long count) {
+        return count > 0 ? fromPaise(paise).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static class CityTotals {
+        long orders;
+        long revenue;
+        final LongIndex customers = new LongIndex(16);
+    }
+}
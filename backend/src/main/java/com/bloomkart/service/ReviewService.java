@@ -6,21 +6,36 @@ import com.bloomkart.entity.User;
 import com.bloomkart.repository.ReviewRepository;
 import com.bloomkart.repository.ProductRepository;
 import com.bloomkart.dto.ReviewRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Reviews and the rating aggregates kept on Product. Every review write applies its delta to
+ * the product row in the same transaction, so rating reads never have to scan the reviews table.
+ */
 @Service
 public class ReviewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
+
     @Autowired
     private ReviewRepository reviewRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductService productService;
+
     @Autowired
     private AuthService authService;
 
@@ -31,15 +46,27 @@ public class ReviewService {
     }
 
     public Double getAverageRating(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        return reviewRepository.getAverageRatingByProduct(product);
+        return productService.getProductById(productId).getAverageRating();
     }
 
     public Long getReviewCount(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        return reviewRepository.getReviewCountByProduct(product);
+        return (long) productService.getProductById(productId).getRatingCount();
+    }
+
+    public Map<String, Object> getRatingStats(Long productId) {
+        Product product = productService.getProductById(productId);
+        int[] histogram = product.getRatingHistogram();
+
+        Map<String, Integer> distribution = new HashMap<>();
+        for (int stars = 1; stars <= 5; stars++) {
+            distribution.put(String.valueOf(stars), histogram[stars - 1]);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("averageRating", product.getAverageRating());
+        stats.put("reviewCount", (long) product.getRatingCount());
+        stats.put("ratingDistribution", distribution);
+        return stats;
     }
 
     @Transactional
@@ -59,7 +86,9 @@ public class ReviewService {
         review.setRating(reviewRequest.getRating());
         review.setComment(reviewRequest.getComment());
 
-        return reviewRepository.save(review);
+        Review savedReview = reviewRepository.save(review);
+        applyRatingChange(productId, 0, savedReview.getRating());
+        return savedReview;
     }
 
     @Transactional
@@ -71,10 +100,15 @@ public class ReviewService {
         Review existingReview = reviewRepository.findByUserAndProduct(currentUser, product)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
 
+        int previousRating = existingReview.getRating();
         existingReview.setRating(reviewRequest.getRating());
         existingReview.setComment(reviewRequest.getComment());
 
-        return reviewRepository.save(existingReview);
+        Review savedReview = reviewRepository.save(existingReview);
+        if (previousRating != savedReview.getRating()) {
+            applyRatingChange(productId, previousRating, savedReview.getRating());
+        }
+        return savedReview;
     }
 
     @Transactional
@@ -87,6 +121,7 @@ public class ReviewService {
                 .orElseThrow(() -> new RuntimeException("Review not found"));
 
         reviewRepository.delete(review);
+        applyRatingChange(productId, review.getRating(), 0);
     }
 
     public boolean hasUserReviewed(Long productId) {
@@ -103,4 +138,32 @@ public class ReviewService {
         return reviewRepository.findByUserAndProduct(currentUser, product)
                 .orElse(null);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Rebuilds every product's rating aggregates from the reviews table. Runs at startup when
+     * the stored counts don't add up to the number of reviews, e.g. on first deploy.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileRatings() {
+        long reviews = reviewRepository.count();
+        if (productRepository.sumRatingCounts() == reviews) {
+            return;
+        }
+
+        productRepository.resetRatingAggregates();
+        List<Object[]> rows = reviewRepository.aggregateRatingsByProduct();
+        for (Object[] row : rows) {
+            productRepository.setRatingAggregates((Long) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).intValue(), ((Number) row[3]).intValue(), ((Number) row[4]).intValue(),
+                    ((Number) row[5]).intValue(), ((Number) row[6]).intValue(), ((Number) row[7]).intValue());
+        }
+        productService.evictCachedProducts(rows.stream().map(row -> (Long) row[0]).toList());
+        logger.info("Rebuilt rating aggregates for {} products from {} reviews", rows.size(), reviews);
+    }
+
+    private void applyRatingChange(Long productId, int removedRating, int addedRating) {
+        productRepository.applyRatingChange(productId, removedRating, addedRating);
+        productService.evictCachedProducts(List.of(productId));
+    }
+}
@@ -0,0 +1,230 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.OrderItem;
+import com.bloomkart.entity.Product;
+import com.bloomkart.exception.BusinessException;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds stock for unpaid orders. Quantities are reserved in memory when an order is placed
+ * and only taken from the durable stock column once payment is confirmed. Holds that are
+ * never paid expire after a TTL and go back on sale.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final int WHEEL_SLOTS = 64;
+    private static final long TICK_MILLIS = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    // Reserved quantity per product; updated with CAS so checkouts of different products never contend
+    private final ConcurrentHashMap<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Hold> holdsByOrder = new ConcurrentHashMap<>();
+
+    // Hashed timing wheel of order ids, bucketed by expiry tick
+    private final Queue<Long>[] wheel = createWheel();
+    private long lastTick = System.currentTimeMillis() / TICK_MILLIS;
+
+    /**
+     * Reserves the order's quantities against the durable stock of the given products.
+     * Throws when any product doesn't have enough unreserved stock; nothing is held in that case.
+     */
+    public void reserve(Long orderId, Map<Long, Integer> quantities, Map<Long, Product> products) {
+        if (holdsByOrder.containsKey(orderId)) {
+            return;
+        }
+
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (!tryReserve(product.getId(), product.getStockQuantity(), entry.getValue())) {
+                taken.forEach(this::unreserve);
+                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlMinutes * 60_000;
+        holdsByOrder.put(orderId, new Hold(taken, expiresAt));
+        wheel[(int) ((expiresAt / TICK_MILLIS) % WHEEL_SLOTS)].add(orderId);
+
+        // The hold is in memory only, so drop it if the order insert is rolled back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(orderId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes the order's quantities from the durable stock column and drops its hold.
+     * Throws when any product is short; the caller's transaction then rolls back what was taken.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void confirm(Order order) {
+        Map<Long, Integer> quantities = quantitiesOf(order);
+        List<Long> insufficient = productRepository.decrementStock(quantities);
+        if (!insufficient.isEmpty()) {
+            logger.error("Order {} was paid but stock could not be taken for products {}", order.getId(), insufficient);
+            throw new BusinessException("Insufficient stock for products " + insufficient, HttpStatus.CONFLICT);
+        }
+        productService.evictCachedProducts(quantities.keySet());
+        release(order.getId());
+    }
+
+    /**
+     * Drops the hold for an unpaid order, making its quantities sellable again.
+     */
+    public boolean release(Long orderId) {
+        Hold hold = holdsByOrder.remove(orderId);
+        if (hold == null) {
+            return false;
+        }
+        hold.quantities.forEach(this::unreserve);
+        return true;
+    }
+
+    /**
+     * Returns stock for a cancelled order: the hold is released if payment never completed,
+     * otherwise the durable stock taken on confirmation is put back.
+     */
+    public void restore(Order order) {
+        if (release(order.getId())) {
+            return;
+        }
+        if (order.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
+            Map<Long, Integer> quantities = quantitiesOf(order);
+            productRepository.incrementStock(quantities);
+            productService.evictCachedProducts(quantities.keySet());
+        }
+    }
+
+    public int getReservedQuantity(Long productId) {
+        AtomicInteger count = reserved.get(productId);
+        return count != null ? count.get() : 0;
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expireHolds() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MILLIS;
+        // Catch up on every tick since the last run, but never walk the wheel more than once
+        long fromTick = Math.max(lastTick + 1, currentTick - WHEEL_SLOTS + 1);
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            Queue<Long> slot = wheel[(int) (tick % WHEEL_SLOTS)];
+            List<Long> notYetDue = new ArrayList<>();
+            Long orderId;
+            while ((orderId = slot.poll()) != null) {
+                Hold hold = holdsByOrder.get(orderId);
+                if (hold == null) {
+                    continue;
+                }
+                if (hold.expiresAt <= now) {
+                    expire(orderId);
+                } else {
+                    notYetDue.add(orderId);
+                }
+            }
+            slot.addAll(notYetDue);
+        }
+        lastTick = currentTick;
+    }
+
+    private void expire(Long orderId) {
+        if (!release(orderId)) {
+            return;
+        }
+        // Conditional, so a payment completed concurrently is never overwritten
+        if (orderRepository.expireUnpaid(orderId) > 0) {
+            logger.info("Stock hold for order {} expired before payment", orderId);
+        }
+    }
+
+    private boolean tryReserve(Long productId, int stock, int quantity) {
+        AtomicInteger count = reserved.computeIfAbsent(productId, id -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            if (stock - current < quantity) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void unreserve(Long productId, Integer quantity) {
+        AtomicInteger count = reserved.get(productId);
+        if (count != null) {
+            count.addAndGet(-quantity);
+        }
+    }
+
+    private static Map<Long, Integer> quantitiesOf(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static Queue<Long>[] createWheel() {
+        @SuppressWarnings("unchecked")
+        Queue<Long>[] slots = (Queue<Long>[]) new Queue<?>[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        return slots;
+    }
+
+    private static class Hold {
+        final Map<Long, Integer> quantities;
+        final long expiresAt;
+
+        Hold(Map<Long, Integer> quantities, long expiresAt) {
+            this.quantities = quantities;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.BlacklistedToken;
+import com.bloomkart.repository.BlacklistedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory front for the blacklisted_tokens table. Tokens are keyed by their SHA-256 digest;
+ * a Bloom filter answers most lookups with "not blacklisted" without touching the database,
+ * and a bounded LRU remembers recent confirmed hits.
+ * The filter learns about tokens revoked on other nodes at the next sync, so an access token
+ * stays usable here for up to auth.blacklist.sync-interval-ms after a logout elsewhere; that
+ * window is accepted for access tokens. Refresh tokens are checked against the database.
+ */
+@Service
+public class TokenBlacklistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
+
+    private static final int MIN_BLOOM_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Autowired
+    private BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @Value("${auth.blacklist.positive-cache-size:10000}")
+    private int positiveCacheSize;
+
+    // Null until the first rebuild; lookups go to the database meanwhile
+    private volatile BloomFilter bloomFilter;
+
+    // Digest -> userId of recently confirmed blacklisted tokens
+    private final Map<String, Long> positiveCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > positiveCacheSize;
+                }
+            });
+
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public boolean isBlacklisted(String token) {
+        byte[] digest = digest(token);
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(digest)) {
+            return false;
+        }
+        return lookup(digest);
+    }
+
+    /**
+     * Like isBlacklisted, but never answers from the Bloom filter alone, so tokens revoked on
+     * another node since the last sync are caught too. For refresh tokens, which are rare.
+     */
+    public boolean isBlacklistedOnAnyNode(String token) {
+        return lookup(digest(token));
+    }
+
+    private boolean lookup(byte[] digest) {
+        String tokenHash = HexFormat.of().formatHex(digest);
+        if (positiveCache.containsKey(tokenHash)) {
+            return true;
+        }
+        return blacklistedTokenRepository.findByTokenHash(tokenHash)
+                .map(entry -> {
+                    positiveCache.put(tokenHash, entry.getUserId());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    public void blacklist(String token, Long userId, LocalDateTime expiresAt, String reason) {
+        byte[] digest = digest(token);
+        String tokenHash = HexFormat.of().formatHex(digest);
+        blacklistedTokenRepository.save(new BlacklistedToken(tokenHash, userId, expiresAt, reason));
+        remember(digest);
+        positiveCache.put(tokenHash, userId);
+    }
+
+    /**
+     * Removes every blacklist entry of a user. The Bloom filter keeps their bits; lookups for
+     * them simply fall through to the database until the next rebuild.
+     */
+    @Transactional
+    public void removeForUser(Long userId) {
+        blacklistedTokenRepository.deleteByUserId(userId);
+        synchronized (positiveCache) {
+            positiveCache.values().removeIf(userId::equals);
+        }
+    }
+
+    @Transactional
+    public void purgeExpired() {
+        blacklistedTokenRepository.deleteExpiredTokens(LocalDateTime.now());
+        rebuild();
+    }
+
+    /**
+     * Reloads the Bloom filter from the table, sized for twice the current row count.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        migrateLegacyRows();
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> hashes = blacklistedTokenRepository.findAllTokenHashes();
+
+        BloomFilter filter = new BloomFilter(Math.max(MIN_BLOOM_CAPACITY, hashes.size() * 2), FALSE_POSITIVE_RATE);
+        HexFormat hex = HexFormat.of();
+        hashes.forEach(hash -> filter.put(hex.parseHex(hash)));
+        bloomFilter = filter;
+        positiveCache.clear();
+        lastSync = startedAt;
+        logger.info("Token blacklist filter rebuilt with {} entries", hashes.size());
+    }
+
+    // Picks up tokens blacklisted by other instances since the last rebuild or sync
+    @Scheduled(fixedDelayString = "${auth.blacklist.sync-interval-ms:2000}")
+    public synchronized void sync() {
+        if (bloomFilter == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        HexFormat hex = HexFormat.of();
+        for (String hash : blacklistedTokenRepository.findTokenHashesBlacklistedSince(lastSync.minusMinutes(1))) {
+            remember(hex.parseHex(hash));
+        }
+        lastSync = startedAt;
+    }
+
+    private synchronized void remember(byte[] digest) {
+        BloomFilter filter = bloomFilter;
+        if (filter == null) {
+            return;
+        }
+        filter.put(digest);
+        if (filter.isSaturated()) {
+            rebuild();
+        }
+    }
+
+    // Rows written before tokens were stored as digests hold the raw JWT
+    private void migrateLegacyRows() {
+        List<BlacklistedToken> legacy = blacklistedTokenRepository.findLegacyRawTokens();
+        if (legacy.isEmpty()) {
+            return;
+        }
+        legacy.forEach(entry -> entry.setTokenHash(HexFormat.of().formatHex(digest(entry.getTokenHash()))));
+        blacklistedTokenRepository.saveAll(legacy);
+        logger.info("Replaced {} raw blacklisted tokens with their digests", legacy.size());
+    }
+
+    static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Bloom filter over SHA-256 digests. The digest is already uniformly distributed,
+     * so its first two words serve as the pair of hashes for double hashing.
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private long insertions;
+
+        BloomFilter(long capacity, double falsePositiveRate) {
+            long bitsNeeded = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitsNeeded + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void put(byte[] digest) {
+            long h1 = word(digest, 0);
+            long h2 = word(digest, 8);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(index)) & mask) == 0 && !bits.compareAndSet(index, current, current | mask)) {
+                    // retry until the bit is set
+                }
+            }
+            insertions++;
+        }
+
+        boolean mightContain(byte[] digest) {
+            long h1 = word(digest, 0);
+            long h2 = word(digest, 8);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isSaturated() {
+            return insertions > capacity;
+        }
+
+        private static long word(byte[] digest, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
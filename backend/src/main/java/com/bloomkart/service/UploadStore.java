@@ -0,0 +1,410 @@
+package com.bloomkart.service;
+
+import com.bloomkart.entity.ImageVariant;
+import com.bloomkart.entity.UploadBlob;
+import com.bloomkart.repository.ImageVariantRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UploadBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for uploads. A file is hashed while it streams to disk and kept once
+ * per digest under ab/cd/&lt;sha256&gt;.ext; its URL stays flat (/uploads/&lt;sha256&gt;.ext).
+ * Product.images references are counted, and a sweeper removes blobs nothing points at.
+ * Files uploaded before the store existed keep their names in the upload root.
+ */
+@Service
+public class UploadStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadStore.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final Pattern BLOB_NAME = Pattern.compile("^([0-9a-f]{64})(?:\\.([a-z0-9]{1,10}))?$");
+    private static final Pattern EXTENSION = Pattern.compile("^[a-z0-9]{1,10}$");
+    private static final String INCOMING_DIR = ".incoming";
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final int LOCK_STRIPES = 64;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private UploadBlobRepository uploadBlobRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private ThreadPoolTaskExecutor uploadExecutor;
+
+    @Value("${file.upload-dir}")
+    private String uploadPath;
+
+    @Value("${uploads.gc.grace-hours:24}")
+    private long graceHours;
+
+    // Serializes storing and collecting the same digest on this node
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public UploadStore() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stores an upload and returns its URL. Content already in the store is not written again.
+     */
+    public String store(MultipartFile file) {
+        return URL_PREFIX + storeBlob(file).blob.getFileName();
+    }
+
+    /**
+     * Stores several uploads in parallel and returns their URLs in order. Inside a transaction,
+     * files this call added to the store are deleted again if the transaction rolls back.
+     */
+    public List<String> storeAll(List<MultipartFile> files) {
+        List<CompletableFuture<StoredBlob>> pending = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> storeBlob(file), uploadExecutor))
+                .toList();
+
+        List<StoredBlob> stored = new ArrayList<>(pending.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<StoredBlob> upload : pending) {
+            try {
+                stored.add(upload.join());
+            } catch (CompletionException e) {
+                // Keep waiting for the others so none is still writing when cleaned up
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+
+        List<UploadBlob> created = stored.stream()
+                .filter(upload -> upload.created)
+                .map(upload -> upload.blob)
+                .toList();
+        if (failure != null) {
+            discard(created);
+            throw failure;
+        }
+        if (!created.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        discard(created);
+                    }
+                }
+            });
+        }
+        return stored.stream()
+                .map(upload -> URL_PREFIX + upload.blob.getFileName())
+                .toList();
+    }
+
+    /**
+     * Where a served file name lives on disk, or empty when the name escapes the upload directory.
+     */
+    public Optional<Path> pathOf(String fileName) {
+        Path root = root();
+        Matcher blob = BLOB_NAME.matcher(fileName);
+        Path path = blob.matches() ? shardOf(root, blob.group(1)).resolve(fileName) : root.resolve(fileName).normalize();
+        return path.startsWith(root) && !path.equals(root) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * True for names of stored blobs, whose content never changes under the same name.
+     */
+    public boolean isContentAddressed(String fileName) {
+        return BLOB_NAME.matcher(fileName).matches();
+    }
+
+    // Called when image URLs are added to a product
+    public void retain(Collection<String> imageUrls) {
+        adjust(imageUrls, 1);
+    }
+
+    // Called when image URLs are removed from a product
+    public void release(Collection<String> imageUrls) {
+        adjust(imageUrls, -1);
+    }
+
+    public List<String> listFileNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        uploadBlobRepository.findAll().forEach(blob -> names.add(blob.getFileName()));
+        Path root = root();
+        if (Files.isDirectory(root)) {
+            // Only pre-store uploads sit in the root; blobs live in the shard directories
+            try (Stream<Path> files = Files.list(root)) {
+                files.filter(Files::isRegularFile)
+                        .map(path -> path.getFileName().toString())
+                        .forEach(names::add);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Removes blobs that have been unreferenced for the grace period, with their variants.
+     * Uploads not yet attached to a product are kept for the same period.
+     */
+    @Scheduled(fixedDelayString = "${uploads.gc.interval-ms:3600000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(graceHours);
+        List<UploadBlob> candidates = uploadBlobRepository.findUnreferencedBefore(cutoff,
+                PageRequest.of(0, SWEEP_BATCH_SIZE));
+        sweepIncoming();
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // The image lists are authoritative; a count that drifted from them is repaired instead of collected
+        Map<String, Integer> references = countReferences(productRepository.findAllImageUrls());
+        int removed = 0;
+        long freedBytes = 0;
+        for (UploadBlob blob : candidates) {
+            Integer referenced = references.get(blob.getDigest());
+            if (referenced != null) {
+                logger.warn("Upload {} had ref count {} but {} references; repaired", blob.getDigest(),
+                        blob.getRefCount(), referenced);
+                uploadBlobRepository.setRefCount(blob.getDigest(), referenced, LocalDateTime.now());
+                continue;
+            }
+            synchronized (lockFor(blob.getDigest())) {
+                if (uploadBlobRepository.deleteIfUnreferenced(blob.getId(), cutoff) == 1) {
+                    deleteFiles(blob);
+                    removed++;
+                    freedBytes += blob.getSizeBytes();
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.info("Upload sweep removed {} unreferenced files ({} bytes)", removed, freedBytes);
+        }
+    }
+
+    private StoredBlob storeBlob(MultipartFile file) {
+        try {
+            Path incoming = Files.createDirectories(root().resolve(INCOMING_DIR));
+            Path temp = Files.createTempFile(incoming, "upload-", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                long size = copy(file, temp, digest);
+                return commit(temp, HexFormat.of().formatHex(digest.digest()),
+                        extensionOf(file.getOriginalFilename()), size);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save image", e);
+        }
+    }
+
+    // Streams the upload into the temp file, hashing each chunk on the way through
+    private static long copy(MultipartFile file, Path temp, MessageDigest digest) throws IOException {
+        long size = 0;
+        try (ReadableByteChannel in = Channels.newChannel(file.getInputStream());
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    size += out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return size;
+    }
+
+    private StoredBlob commit(Path temp, String digest, String extension, long size) throws IOException {
+        synchronized (lockFor(digest)) {
+            UploadBlob blob = uploadBlobRepository.findByDigest(digest).orElse(null);
+            boolean created = false;
+            if (blob != null) {
+                uploadBlobRepository.touch(digest, LocalDateTime.now());
+            } else {
+                try {
+                    blob = uploadBlobRepository.save(new UploadBlob(digest, extension, size));
+                    created = true;
+                } catch (DataIntegrityViolationException e) {
+                    // Stored concurrently by another node
+                    blob = uploadBlobRepository.findByDigest(digest).orElseThrow(() -> e);
+                    uploadBlobRepository.touch(digest, LocalDateTime.now());
+                }
+            }
+
+            Path target = shardOf(root(), digest).resolve(blob.getFileName());
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(blob, created);
+        }
+    }
+
+    // Removes blobs added for a save that failed, unless something else has used them since
+    private void discard(List<UploadBlob> blobs) {
+        for (UploadBlob blob : blobs) {
+            synchronized (lockFor(blob.getDigest())) {
+                // Variants are only generated after the product save commits, so there are none to remove
+                if (uploadBlobRepository.deleteIfUntouched(blob.getId()) == 1) {
+                    try {
+                        Files.deleteIfExists(shardOf(root(), blob.getDigest()).resolve(blob.getFileName()));
+                    } catch (IOException e) {
+                        logger.warn("Could not delete discarded upload {}: {}", blob.getDigest(), e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void adjust(Collection<String> imageUrls, int direction) {
+        if (imageUrls == null || imageUrls.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        countReferences(imageUrls).forEach((digest, count) ->
+                uploadBlobRepository.adjustRefCount(digest, direction * count, now));
+    }
+
+    // Digest -> number of occurrences, for URLs of stored blobs only
+    private static Map<String, Integer> countReferences(Collection<String> imageUrls) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String url : imageUrls) {
+            if (url == null || !url.startsWith(URL_PREFIX)) {
+                continue;
+            }
+            Matcher blob = BLOB_NAME.matcher(url.substring(URL_PREFIX.length()));
+            if (blob.matches()) {
+                counts.merge(blob.group(1), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void deleteFiles(UploadBlob blob) {
+        Path root = root();
+        try {
+            List<ImageVariant> variants = imageVariantRepository.findBySourceFileOrderByWidthAsc(blob.getFileName());
+            for (ImageVariant variant : variants) {
+                Files.deleteIfExists(root.resolve(variant.getFileName()));
+            }
+            imageVariantRepository.deleteAll(variants);
+            Files.deleteIfExists(shardOf(root, blob.getDigest()).resolve(blob.getFileName()));
+        } catch (IOException e) {
+            logger.warn("Could not delete files of upload {}: {}", blob.getDigest(), e.getMessage());
+        }
+    }
+
+    // Temp files left behind by a crash mid-upload
+    private void sweepIncoming() {
+        Path incoming = root().resolve(INCOMING_DIR);
+        if (!Files.isDirectory(incoming)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(graceHours, ChronoUnit.HOURS));
+        try (DirectoryStream<Path> temps = Files.newDirectoryStream(incoming)) {
+            for (Path temp : temps) {
+                if (Files.getLastModifiedTime(temp).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean incoming uploads: {}", e.getMessage());
+        }
+    }
+
+    private Path root() {
+        return Paths.get(uploadPath).toAbsolutePath().normalize();
+    }
+
+    // ab/cd/ under the root: 65536 directories, so none grows past a few entries per thousand files
+    private static Path shardOf(Path root, String digest) {
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4));
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return null;
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        String extension = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class StoredBlob {
+        private final UploadBlob blob;
+        // False when the content was already in the store
+        private final boolean created;
+
+        StoredBlob(UploadBlob blob, boolean created) {
+            this.blob = blob;
+            this.created = created;
+        }
+    }
+}
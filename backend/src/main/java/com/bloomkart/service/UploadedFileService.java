@@ -0,0 +1,190 @@
+package com.bloomkart.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves files under the upload directory and keeps their serving metadata (content type,
+ * size, ETag) in memory, so a request costs one stat instead of a content-type probe and a hash.
+ */
+@Service
+public class UploadedFileService {
+
+    // Uploads are stored as "<uuid>_<original name>" and never rewritten under the same name
+    private static final Pattern IMMUTABLE_NAME =
+            Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}_.+");
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Value("${file.upload-dir}")
+    private String uploadPath;
+
+    @Value("${file.metadata-cache-size:10000}")
+    private int metadataCacheSize;
+
+    // Keyed by absolute path; an entry is reused while the file's size and mtime are unchanged
+    private Cache<Path, FileMetadata> metadata;
+
+    @PostConstruct
+    void init() {
+        metadata = Caffeine.newBuilder().maximumSize(metadataCacheSize).build();
+    }
+
+    /**
+     * The file to serve for an upload name, or empty when the name escapes the upload directory
+     * or the file does not exist. With a width, the matching variant is chosen when one exists.
+     */
+    public Optional<FileMetadata> resolve(String filename, Integer width) {
+        Path uploadDir = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Optional<Path> stored = uploadStore.pathOf(filename);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        Path path = stored.get();
+
+        boolean variant = false;
+        if (width != null && width > 0) {
+            Optional<Path> variantPath = imageVariantService.findVariant(filename, width)
+                    .map(found -> uploadDir.resolve(found.getFileName()));
+            if (variantPath.isPresent() && Files.isRegularFile(variantPath.get())) {
+                path = variantPath.get();
+                variant = true;
+            }
+        }
+
+        boolean contentAddressed = uploadStore.isContentAddressed(filename);
+        Optional<FileMetadata> described = describe(path, contentAddressed && !variant ? filename : null);
+        // An original served in place of a missing variant must not be cached for good under the ?w= URL
+        boolean immutable = (contentAddressed || IMMUTABLE_NAME.matcher(filename).matches())
+                && (width == null || variant);
+        return described.map(file -> immutable ? file : file.mutable());
+    }
+
+    // digestName: a content-addressed name, whose digest already is the ETag
+    private Optional<FileMetadata> describe(Path path, String digestName) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        FileMetadata cached = metadata.getIfPresent(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return Optional.of(cached);
+        }
+
+        FileMetadata described = new FileMetadata(path, size, lastModified, contentType(path),
+                digestName != null ? "\"" + digestName.substring(0, 32) + "\"" : etag(path), true);
+        metadata.put(path, described);
+        return Optional.of(described);
+    }
+
+    private static String contentType(Path path) {
+        try {
+            String probed = Files.probeContentType(path);
+            if (probed != null) {
+                return probed;
+            }
+        } catch (IOException e) {
+            // Fall back to the extension
+        }
+        return MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    // Strong validator: digest of the content, computed once per file version
+    private static String etag(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class FileMetadata {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final String contentType;
+        private final String etag;
+        private final boolean immutable;
+
+        FileMetadata(Path path, long size, long lastModified, String contentType, String etag, boolean immutable) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.immutable = immutable;
+        }
+
+        FileMetadata mutable() {
+            return new FileMetadata(path, size, lastModified, contentType, etag, false);
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public boolean isImmutable() {
+            return immutable;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.bloomkart.service;
 
+import com.bloomkart.dto.PageCursor;
 import com.bloomkart.entity.User;
 import com.bloomkart.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,6 +20,14 @@ public class UserService {
         return userRepository.findAll(pageable);
     }
 
+    public Slice<User> getUsersAfter(PageCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (after == null) {
+            return userRepository.findSliceFirst(pageable);
+        }
+        return userRepository.findSliceAfter(after.getSortKeyAsDateTime(), after.getId(), pageable);
+    }
+
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
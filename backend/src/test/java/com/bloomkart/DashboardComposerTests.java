@@ -0,0 +1,93 @@
+package com.bloomkart;
+
+import com.bloomkart.service.DashboardComposer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class DashboardComposerTests {
+
+    @Autowired
+    private DashboardComposer dashboardComposer;
+
+    @Test
+    void failingSectionMarksResultPartial() {
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        sections.put("ok", () -> "loaded");
+        sections.put("broken", () -> {
+            throw new IllegalStateException("query failed");
+        });
+
+        Map<String, Object> result = dashboardComposer.compose(sections);
+
+        assertEquals("loaded", result.get("ok"));
+        assertEquals(Map.of("error", "Section failed to load"), result.get("broken"));
+        assertEquals(true, result.get("partial"));
+    }
+
+    @Test
+    void sectionsBeyondPoolCapacityAreRejectedNotRunInline() {
+        // 8 workers and a queue of 32 take 40 sections; the rest must not run on the calling thread
+        Thread caller = Thread.currentThread();
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < 45; i++) {
+            sections.put("section" + i, () -> {
+                if (Thread.currentThread() == caller) {
+                    throw new IllegalStateException("ran on the request thread");
+                }
+                sleep(100);
+                return "loaded";
+            });
+        }
+
+        Map<String, Object> result = dashboardComposer.compose(sections);
+
+        long rejected = result.values().stream()
+                .filter(Map.of("error", "Section not loaded, the server is busy")::equals)
+                .count();
+        long loaded = result.values().stream().filter("loaded"::equals).count();
+        // Workers still busy with earlier work can only leave fewer slots
+        assertTrue(rejected >= 5);
+        assertEquals(45, rejected + loaded);
+        assertEquals(true, result.get("partial"));
+    }
+
+    @Test
+    void timedOutSectionIsInterrupted() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        sections.put("slow", () -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "too late";
+        });
+
+        Map<String, Object> result = dashboardComposer.compose(sections);
+
+        assertEquals(Map.of("error", "Section timed out"), result.get("slow"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.EmailMessage;
+import com.bloomkart.repository.EmailMessageRepository;
+import com.bloomkart.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class EmailQueueTests {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailMessageRepository emailMessageRepository;
+
+    @Autowired
+    private TestSmtpServer smtpServer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void queuedMessagesAreSentInBackgroundOverOneConnection() throws InterruptedException {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        List<String> recipients = List.of("first-" + run + "@bloomkart.com", "second-" + run + "@bloomkart.com",
+                "third-" + run + "@bloomkart.com");
+        int connectionsBefore = smtpServer.getConnectionCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendTemplate(recipients.get(0), "order-confirmation",
+                    Map.of("name", "Asha", "orderId", 41, "items", "- 1 x Tulips  Rs. 299.00", "total", "299.00"));
+            emailService.sendTemplate(recipients.get(1), "order-confirmation",
+                    Map.of("name", "Ravi", "orderId", 42, "items", "- 2 x Roses  Rs. 998.00", "total", "998.00"));
+            emailService.sendEmail(recipients.get(2), "Welcome to BloomKart", "Fresh flowers, delivered.");
+        });
+
+        List<TestSmtpServer.ReceivedMessage> received = List.of();
+        for (int i = 0; i < 100 && received.size() < recipients.size(); i++) {
+            Thread.sleep(100);
+            received = smtpServer.getMessages().stream()
+                    .filter(message -> recipients.contains(message.getRecipients().get(0)))
+                    .toList();
+        }
+
+        assertEquals(recipients.size(), received.size());
+        assertEquals(connectionsBefore + 1, smtpServer.getConnectionCount());
+        String confirmation = received.stream()
+                .filter(message -> message.getRecipients().contains(recipients.get(1)))
+                .findFirst().orElseThrow().getData();
+        assertTrue(confirmation.contains("Subject: Your BloomKart order #42 is confirmed"));
+        assertTrue(confirmation.contains("Hi Ravi,"));
+        assertTrue(confirmation.contains("Total paid: Rs. 998.00"));
+
+        for (int i = 0; i < 50 && emailMessageRepository.countByStatus(EmailMessage.Status.SENDING) > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(emailMessageRepository.findAll().stream()
+                .filter(message -> recipients.contains(message.getRecipient()))
+                .allMatch(message -> message.getStatus() == EmailMessage.Status.SENT && message.getSentAt() != null));
+    }
+}
@@ -4,7 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
-@Import(TestMailConfig.class)
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
 @SpringBootTest
 class FlowerEcommerceApplicationTests {
 
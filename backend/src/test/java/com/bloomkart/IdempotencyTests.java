@@ -0,0 +1,210 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.Product;
+import com.bloomkart.entity.User;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.PaymentOutboxRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UserRepository;
+import com.bloomkart.service.IdempotencyService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class IdempotencyTests {
+
+    private static final String EMAIL = "idempotency-customer@bloomkart.com";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    private MockMvc mockMvc;
+    private User user;
+    private Product product;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> {
+            User created = new User();
+            created.setName("Idempotency Customer");
+            created.setEmail(EMAIL);
+            created.setPassword("secret123");
+            return userRepository.save(created);
+        });
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+        product = productRepository.save(
+                new Product("Idempotent Tulips", "Tulips used by the idempotency test", new BigDecimal("199.00"), "Tulips", 10));
+    }
+
+    // The context is shared with other test classes, so no orders are left behind
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        paymentOutboxRepository.deleteAll(paymentOutboxRepository.findAll().stream()
+                .filter(entry -> orderIds.contains(entry.getOrderId()))
+                .toList());
+        orderRepository.deleteAllById(orderIds);
+        orderIds.clear();
+    }
+
+    @Test
+    void retryReplaysTheStoredOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        MvcResult first = mockMvc.perform(createOrder(key, 2))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn();
+        Long orderId = orderIdOf(first);
+        orderIds.add(orderId);
+
+        MvcResult retry = mockMvc.perform(createOrder(key, 2))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        assertEquals(orderId, orderIdOf(retry));
+        assertEquals(1, orderRepository.findByUser(user, Pageable.unpaged()).getTotalElements());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        orderIds.add(orderIdOf(mockMvc.perform(createOrder(key, 1)).andExpect(status().isOk()).andReturn()));
+
+        mockMvc.perform(createOrder(key, 3)).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstResult() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(key, "POST /test", request("{\"a\":1}"), () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok("done");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(key, "POST /test", request("{\"a\":1}"), () -> {
+                    runs.incrementAndGet();
+                    return ResponseEntity.ok("again");
+                }));
+        Thread.sleep(200);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals("done", first.get(5, TimeUnit.SECONDS).getBody());
+        ResponseEntity<?> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals("\"done\"", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(key, "POST /test",
+                request("{\"a\":1}"), () -> {
+                    throw new IllegalStateException("gateway down");
+                }));
+
+        ResponseEntity<?> retry = idempotencyService.execute(key, "POST /test", request("{\"a\":1}"),
+                () -> ResponseEntity.ok("done"));
+        assertEquals("done", retry.getBody());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    private RequestBuilder createOrder(String key, int quantity) {
+        String body = """
+                {"totalAmount": %s,
+                 "orderItems": [{"product": {"id": %d}, "quantity": %d}],
+                 "deliveryDetails": {"address": "3 Tulip Road", "city": "Bengaluru", "state": "Karnataka",
+                                     "pincode": "560001", "phoneNumber": "9876543210"}}
+                """.formatted(product.getPrice().multiply(BigDecimal.valueOf(quantity)), product.getId(), quantity);
+        return post("/orders")
+                .header(IdempotencyService.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    // As bound by IdempotentRequestBodyAdvice
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test");
+        request.setAttribute(IdempotencyService.RAW_BODY_ATTRIBUTE, body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static Long orderIdOf(MvcResult result) throws Exception {
+        return ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
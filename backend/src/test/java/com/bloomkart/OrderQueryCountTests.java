@@ -0,0 +1,186 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.OrderItem;
+import com.bloomkart.entity.Product;
+import com.bloomkart.entity.User;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each order endpoint issues. The counts must not grow
+ * with the number of orders or items, which would mean an N+1 crept back in.
+ */
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class OrderQueryCountTests {
+
+    private static final int ORDERS = 3;
+    private static final int ITEMS_PER_ORDER = 2;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private MockMvc mockMvc;
+    private User customer;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        // Controllers are called directly; authentication comes from the security context set below
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        customer = new User();
+        customer.setName("Query Count Customer");
+        customer.setEmail("query-count-" + UUID.randomUUID() + "@bloomkart.com");
+        customer.setPassword("secret123");
+        customer = userRepository.save(customer);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Product product = new Product("Query Count Lilies " + i, "Lilies used by the query count test",
+                    new BigDecimal("299.00"), "Lilies", 10);
+            product.setImages(new ArrayList<>(List.of("/uploads/lily-" + i + "-a.jpg", "/uploads/lily-" + i + "-b.jpg")));
+            products.add(productRepository.save(product));
+        }
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(customer, new BigDecimal("598.00"));
+            order.setDeliveryDetails(delivery());
+            List<OrderItem> items = new ArrayList<>();
+            for (Product product : products) {
+                items.add(new OrderItem(order, product, 1, product.getPrice()));
+            }
+            order.setOrderItems(items);
+            orderId = orderRepository.save(order).getId();
+        }
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userOrderHistory() throws Exception {
+        authenticate(customer.getEmail(), "ROLE_USER");
+        // current user, one page of summaries with item counts
+        assertStatements(2, "/orders?size=2", jsonPath("$.content.length()").value(2),
+                jsonPath("$.content[0].itemCount").value(ITEMS_PER_ORDER),
+                jsonPath("$.content[0].orderItems").doesNotExist(),
+                jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void userOrderHistoryNextPage() throws Exception {
+        authenticate(customer.getEmail(), "ROLE_USER");
+        String cursor = JsonPath.read(mockMvc.perform(get("/orders?size=2")).andReturn()
+                .getResponse().getContentAsString(), "$.nextCursor");
+        // the same two statements, however deep into the history
+        assertStatements(2, "/orders?size=2&after=" + cursor, jsonPath("$.content.length()").value(ORDERS - 2),
+                jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void userOrderDetail() throws Exception {
+        authenticate(customer.getEmail(), "ROLE_USER");
+        // current user, order with items and products, product images
+        assertStatements(3, "/orders/" + orderId, jsonPath("$.orderItems[0].product.name").exists(),
+                jsonPath("$.orderItems[0].product.images.length()").value(2),
+                jsonPath("$.user.password").doesNotExist());
+    }
+
+    @Test
+    void paymentStatus() throws Exception {
+        authenticate(customer.getEmail(), "ROLE_USER");
+        // current user, order row
+        assertStatements(2, "/orders/" + orderId + "/payment-status", jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void paymentHistory() throws Exception {
+        authenticate(customer.getEmail(), "ROLE_USER");
+        // current user, one page of summaries
+        assertStatements(2, "/orders/payment-history", jsonPath("$.content.length()").value(ORDERS));
+    }
+
+    @Test
+    void adminOrderPage() throws Exception {
+        authenticate("admin@bloomkart.com", "ROLE_ADMIN");
+        // page of orders with users, count, items of the page
+        assertStatements(3, "/admin/orders?page=0&size=2", jsonPath("$.content.length()").value(2),
+                jsonPath("$.content[0].user.name").exists(),
+                jsonPath("$.content[0].orderItems.length()").value(ITEMS_PER_ORDER));
+    }
+
+    @Test
+    void adminOrderSlice() throws Exception {
+        authenticate("admin@bloomkart.com", "ROLE_ADMIN");
+        // slice of orders with users, items of the slice
+        assertStatements(2, "/admin/orders?after=&size=2", jsonPath("$.content.length()").value(2),
+                jsonPath("$.content[1].orderItems.length()").value(ITEMS_PER_ORDER));
+    }
+
+    @Test
+    void adminOrderDetail() throws Exception {
+        authenticate("admin@bloomkart.com", "ROLE_ADMIN");
+        // order with user, items and products, product images
+        assertStatements(2, "/admin/orders/" + orderId, jsonPath("$.user.email").value(customer.getEmail()),
+                jsonPath("$.orderItems.length()").value(ITEMS_PER_ORDER));
+    }
+
+    private void assertStatements(int expected, String url, ResultMatcher... matchers) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpectAll(matchers);
+        assertEquals(expected, SqlStatementCounter.count(), "SQL statements for GET " + url);
+    }
+
+    private static void authenticate(String email, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+
+    private static Order.DeliveryDetails delivery() {
+        Order.DeliveryDetails delivery = new Order.DeliveryDetails();
+        delivery.setAddress("2 Petal Lane");
+        delivery.setCity("Mysuru");
+        delivery.setState("Karnataka");
+        delivery.setPincode("570001");
+        delivery.setPhoneNumber("9876543210");
+        return delivery;
+    }
+}
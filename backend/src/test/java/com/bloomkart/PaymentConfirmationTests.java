@@ -0,0 +1,226 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.EmailMessage;
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.OrderItem;
+import com.bloomkart.entity.Product;
+import com.bloomkart.entity.User;
+import com.bloomkart.exception.BusinessException;
+import com.bloomkart.repository.EmailMessageRepository;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.PaymentOutboxRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UserRepository;
+import com.bloomkart.service.OrderService;
+import com.bloomkart.service.PaymentService;
+import com.bloomkart.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class PaymentConfirmationTests {
+
+    private static final String EMAIL = "payment-customer@bloomkart.com";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private EmailMessageRepository emailMessageRepository;
+
+    @Value("${razorpay.key.secret}")
+    private String razorpayKeySecret;
+
+    private Product product;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void signIn() {
+        User user = userRepository.findByEmail(EMAIL).orElseGet(() -> {
+            User created = new User();
+            created.setName("Payment Customer");
+            created.setEmail(EMAIL);
+            created.setPassword("secret123");
+            return userRepository.save(created);
+        });
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+
+        product = productRepository.save(
+                new Product("Payment Lilies", "Lilies used by the payment test", new BigDecimal("299.00"), "Lilies", 10));
+    }
+
+    // The context is shared with other test classes, so no orders or unsent mail are left behind
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 50 && hasUnsentMail(); i++) {
+            Thread.sleep(100);
+        }
+        paymentOutboxRepository.deleteAll(paymentOutboxRepository.findAll().stream()
+                .filter(entry -> orderIds.contains(entry.getOrderId()))
+                .toList());
+        orderRepository.deleteAllById(orderIds);
+        orderIds.clear();
+    }
+
+    @Test
+    void repeatedVerificationTakesStockOnce() throws Exception {
+        Order order = placeOrder(3);
+        String gatewayOrderId = awaitGatewayOrderId(order.getId());
+
+        paymentService.processPaymentSuccess(order.getId(), "pay_once", sign(gatewayOrderId, "pay_once"));
+        paymentService.processPaymentSuccess(order.getId(), "pay_once", sign(gatewayOrderId, "pay_once"));
+
+        assertEquals(7, stockOf(product));
+        assertEquals(Order.PaymentStatus.COMPLETED, orderRepository.findById(order.getId()).orElseThrow().getPaymentStatus());
+        assertThrows(BusinessException.class, () -> paymentService.processPaymentSuccess(
+                order.getId(), "pay_other", sign(gatewayOrderId, "pay_other")));
+    }
+
+    @Test
+    void paymentForCancelledOrderTakesNoStock() throws Exception {
+        Order order = placeOrder(2);
+        String gatewayOrderId = awaitGatewayOrderId(order.getId());
+        orderService.cancelOrder(order.getId());
+
+        assertThrows(BusinessException.class, () -> paymentService.processPaymentSuccess(
+                order.getId(), "pay_late", sign(gatewayOrderId, "pay_late")));
+
+        Order cancelled = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(10, stockOf(product));
+        assertEquals(Order.OrderStatus.CANCELLED, cancelled.getStatus());
+        assertTrue(cancelled.isNeedsReview());
+    }
+
+    @Test
+    void paymentForSoldOutOrderIsFlaggedInsteadOfCompleted() throws Exception {
+        Order order = placeOrder(3);
+        String gatewayOrderId = awaitGatewayOrderId(order.getId());
+        productService.setStock(product.getId(), 2);
+
+        assertThrows(BusinessException.class, () -> paymentService.processPaymentSuccess(
+                order.getId(), "pay_sold_out", sign(gatewayOrderId, "pay_sold_out")));
+
+        Order flagged = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(2, stockOf(product));
+        assertEquals(Order.PaymentStatus.PENDING, flagged.getPaymentStatus());
+        assertTrue(flagged.isNeedsReview());
+    }
+
+    @Test
+    void paymentForFailedOrderIsFlaggedInsteadOfVerified() throws Exception {
+        Order order = placeOrder(1);
+        String gatewayOrderId = awaitGatewayOrderId(order.getId());
+        assertThrows(RuntimeException.class, () -> paymentService.processPaymentSuccess(
+                order.getId(), "pay_forged", "not-a-signature"));
+
+        assertThrows(BusinessException.class, () -> paymentService.processPaymentSuccess(
+                order.getId(), "pay_after_failure", sign(gatewayOrderId, "pay_after_failure")));
+
+        Order flagged = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(10, stockOf(product));
+        assertEquals(Order.PaymentStatus.FAILED, flagged.getPaymentStatus());
+        assertTrue(flagged.isNeedsReview());
+    }
+
+    @Test
+    void customersCannotCancelOtherCustomersOrders() {
+        Order order = placeOrder(1);
+        User other = userRepository.findByEmail("other-customer@bloomkart.com").orElseGet(() -> {
+            User created = new User();
+            created.setName("Other Customer");
+            created.setEmail("other-customer@bloomkart.com");
+            created.setPassword("secret123");
+            return userRepository.save(created);
+        });
+
+        assertThrows(RuntimeException.class, () -> orderService.cancelUserOrder(order.getId(), other));
+
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        orderService.cancelOrder(order.getId());
+    }
+
+    private Order placeOrder(int quantity) {
+        Order.DeliveryDetails delivery = new Order.DeliveryDetails();
+        delivery.setAddress("2 Flower Street");
+        delivery.setCity("Bengaluru");
+        delivery.setState("Karnataka");
+        delivery.setPincode("560001");
+        delivery.setPhoneNumber("9876543210");
+
+        Order order = new Order();
+        order.setDeliveryDetails(delivery);
+        order.setOrderItems(List.of(new OrderItem(order, product, quantity, null)));
+        Order created = orderService.createOrder(order);
+        orderIds.add(created.getId());
+        return created;
+    }
+
+    private String awaitGatewayOrderId(Long orderId) throws InterruptedException {
+        String paymentId = null;
+        for (int i = 0; i < 50 && paymentId == null; i++) {
+            Thread.sleep(100);
+            paymentId = orderRepository.findById(orderId).orElseThrow().getPaymentId();
+        }
+        assertNotNull(paymentId);
+        return paymentId;
+    }
+
+    private boolean hasUnsentMail() {
+        return emailMessageRepository.findAll().stream()
+                .anyMatch(message -> message.getRecipient().equals(EMAIL)
+                        && message.getStatus() != EmailMessage.Status.SENT);
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+
+    // Razorpay signs "<order id>|<payment id>" with HMAC-SHA256 under the key secret
+    private String sign(String gatewayOrderId, String paymentId) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(razorpayKeySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal((gatewayOrderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.Order;
+import com.bloomkart.entity.OrderItem;
+import com.bloomkart.entity.PaymentOutbox;
+import com.bloomkart.entity.Product;
+import com.bloomkart.entity.User;
+import com.bloomkart.repository.OrderRepository;
+import com.bloomkart.repository.PaymentOutboxRepository;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.repository.UserRepository;
+import com.bloomkart.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class PaymentOutboxTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createOrderQueuesGatewayOrderAndPatchesPaymentId() throws InterruptedException {
+        User user = new User();
+        user.setName("Outbox Customer");
+        user.setEmail("outbox-customer@bloomkart.com");
+        user.setPassword("secret123");
+        user = userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+
+        Product product = productRepository.save(
+                new Product("Outbox Roses", "Roses used by the outbox test", new BigDecimal("499.00"), "Roses", 10));
+
+        Order.DeliveryDetails delivery = new Order.DeliveryDetails();
+        delivery.setAddress("1 Flower Street");
+        delivery.setCity("Bengaluru");
+        delivery.setState("Karnataka");
+        delivery.setPincode("560001");
+        delivery.setPhoneNumber("9876543210");
+
+        Order order = new Order();
+        order.setDeliveryDetails(delivery);
+        order.setOrderItems(List.of(new OrderItem(order, product, 2, null)));
+
+        Order created = orderService.createOrder(order);
+        assertNull(created.getPaymentId());
+
+        String paymentId = null;
+        for (int i = 0; i < 50 && paymentId == null; i++) {
+            Thread.sleep(100);
+            paymentId = orderRepository.findById(created.getId()).orElseThrow().getPaymentId();
+        }
+
+        assertNotNull(paymentId);
+        assertTrue(paymentId.startsWith("order_stub_"));
+        // Other test classes share the database, so only this order's entry is looked at
+        List<PaymentOutbox> entries = paymentOutboxRepository.findAll().stream()
+                .filter(entry -> created.getId().equals(entry.getOrderId()))
+                .toList();
+        assertEquals(1, entries.size());
+        assertEquals(PaymentOutbox.Status.DONE, entries.get(0).getStatus());
+    }
+}
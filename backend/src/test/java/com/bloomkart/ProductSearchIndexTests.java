@@ -0,0 +1,38 @@
+package com.bloomkart;
+
+import com.bloomkart.entity.Product;
+import com.bloomkart.repository.ProductRepository;
+import com.bloomkart.service.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import({TestMailConfig.class, TestPaymentGatewayConfig.class})
+@SpringBootTest
+class ProductSearchIndexTests {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void categoryMatchesIgnoringCase() {
+        Product product = productRepository.save(
+                new Product("Index Orchids", "Orchids used by the search index test", new BigDecimal("899.00"), "Orchids", 5));
+        productSearchIndex.index(product);
+
+        // The SQL filter this replaces ran under MySQL's case-insensitive collation
+        assertTrue(productSearchIndex.search("orchids", null, null, null, null).contains(product.getId()));
+        assertTrue(productSearchIndex.search("ORCHIDS", null, null, null, null).contains(product.getId()));
+
+        productSearchIndex.delete(product.getId());
+        productRepository.delete(product);
+    }
+}
@@ -0,0 +1,63 @@
+package com.bloomkart;
+
+import com.bloomkart.config.EmbeddedSharedCounterClient;
+import com.bloomkart.config.InMemoryRateLimitStore;
+import com.bloomkart.config.SharedRateLimitStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedRateLimitStoreTests {
+
+    private static final String KEY = "auth|ip:203.0.113.7";
+    private static final int CAPACITY = 10;
+    private static final int REFILL_PER_MINUTE = 60;
+
+    // Two nodes sharing one counter backend
+    private final EmbeddedSharedCounterClient client = new EmbeddedSharedCounterClient();
+    private final SharedRateLimitStore nodeA = node();
+    private final SharedRateLimitStore nodeB = node();
+
+    @Test
+    void nodesShareOneBudgetAndOneRefillRate() throws InterruptedException {
+        // Both nodes start tracking the key; a node's first sync only sets its baseline
+        assertEquals(0, take(nodeA));
+        assertEquals(0, take(nodeB));
+        nodeA.sync();
+        nodeB.sync();
+
+        int allowedOnA = 0;
+        while (take(nodeA) == 0) {
+            allowedOnA++;
+        }
+        assertEquals(CAPACITY - 1, allowedOnA);
+
+        // Node B learns what node A spent and has nothing left of the shared budget
+        nodeA.sync();
+        nodeB.sync();
+        assertTrue(take(nodeB) > 0);
+
+        // One token a second at 60 a minute for the whole cluster. Node A still owes the token node B took
+        // before their first sync, so only node B gets the refilled one
+        Thread.sleep(1_100);
+        nodeA.sync();
+        nodeB.sync();
+        assertTrue(take(nodeA) > 0);
+        assertEquals(0, take(nodeB));
+        nodeB.sync();
+        nodeA.sync();
+        assertTrue(take(nodeA) > 0);
+        assertTrue(take(nodeB) > 0);
+    }
+
+    private SharedRateLimitStore node() {
+        return new SharedRateLimitStore(new InMemoryRateLimitStore(100), client, Duration.ofMinutes(10));
+    }
+
+    private static long take(SharedRateLimitStore node) {
+        return node.tryConsume(KEY, CAPACITY, REFILL_PER_MINUTE);
+    }
+}
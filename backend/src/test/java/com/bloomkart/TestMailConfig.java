@@ -5,12 +5,21 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import java.io.IOException;
+
 @TestConfiguration
 public class TestMailConfig {
+    @Bean(destroyMethod = "close")
+    public TestSmtpServer testSmtpServer() throws IOException {
+        return new TestSmtpServer();
+    }
+
     @Bean
-    public JavaMailSender javaMailSender() {
-        // Return a dummy mail sender for tests
-        return new JavaMailSenderImpl();
+    public JavaMailSender javaMailSender(TestSmtpServer testSmtpServer) {
+        // Real SMTP client talking to the in-memory server
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(testSmtpServer.getPort());
+        return mailSender;
     }
 }
-
@@ -0,0 +1,19 @@
+package com.bloomkart;
+
+import com.bloomkart.service.PaymentGateway;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@TestConfiguration
+public class TestPaymentGatewayConfig {
+    @Bean
+    @Primary
+    public PaymentGateway stubPaymentGateway() {
+        // Local stand-in for Razorpay so tests never call the real gateway
+        AtomicLong sequence = new AtomicLong();
+        return (amountInPaise, currency, receipt) -> "order_stub_" + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,129 @@
+package com.bloomkart;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server on a loopback port that accepts every message and keeps it in memory,
+ * so tests exercise the real mail sender without any network access.
+ */
+public class TestSmtpServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final List<ReceivedMessage> messages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public TestSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "test-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<ReceivedMessage> getMessages() {
+        return messages;
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread session = new Thread(() -> converse(socket), "test-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+    }
+
+    private void converse(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost test SMTP");
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("RCPT TO:")) {
+                    recipients.add(line.substring(8).trim().replaceAll("[<>]", ""));
+                    reply(out, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    messages.add(new ReceivedMessage(List.copyOf(recipients), readData(in)));
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else if (command.startsWith("RSET")) {
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else {
+                    // EHLO, HELO, MAIL FROM, NOOP
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            data.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+        }
+        return data.toString();
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    public static class ReceivedMessage {
+        private final List<String> recipients;
+        private final String data;
+
+        ReceivedMessage(List<String> recipients, String data) {
+            this.recipients = recipients;
+            this.data = data;
+        }
+
+        public List<String> getRecipients() {
+            return recipients;
+        }
+
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -157,11 +157,11 @@ const Home = () => {
                       src={
                         product.mainImage &&
                         product.mainImage.startsWith("/uploads/")
-                          ? `http://localhost:8080/api${product.mainImage}`
+                          ? `http://localhost:8080/api${product.mainImage}?w=640`
                           : product.mainImage ||
                             (product.images?.[0] &&
                             product.images[0].startsWith("/uploads/")
-                              ? `http://localhost:8080/api${product.images[0]}`
+                              ? `http://localhost:8080/api${product.images[0]}?w=640`
                               : product.images?.[0]) ||
                             "/placeholder-flower.jpg"
                       }
@@ -5,23 +5,37 @@ import { FaEye } from "react-icons/fa";
 
 const Orders = () => {
   const [orders, setOrders] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     fetchOrders();
   }, []);
 
-  const fetchOrders = async () => {
+  // History is paged newest first; nextCursor fetches the following page
+  const fetchOrders = async (after) => {
     try {
-      const response = await api.get("/orders");
-      setOrders(response.data);
+      const response = await api.get("/orders", {
+        params: after ? { after } : {},
+      });
+      setOrders((current) =>
+        after ? [...current, ...response.data.content] : response.data.content
+      );
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error("Error fetching orders:", error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
+  const loadMore = () => {
+    setLoadingMore(true);
+    fetchOrders(nextCursor);
+  };
+
   if (loading) {
     return (
       <div className="loading-spinner">
@@ -64,19 +78,12 @@ const Orders = () => {
                         <strong>Total Amount:</strong> ₹{order.totalAmount}
                       </p>
                       <p>
-                        <strong>Items:</strong> {order.orderItems.length} items
+                        <strong>Items:</strong> {order.itemCount} items
                       </p>
                     </div>
                     <div className="col-md-6">
                       <p>
-                        <strong>Delivery Address:</strong>
-                      </p>
-                      <p className="text-muted">
-                        {order.deliveryDetails.address}
-                        <br />
-                        {order.deliveryDetails.city},{" "}
-                        {order.deliveryDetails.state}{" "}
-                        {order.deliveryDetails.pincode}
+                        <strong>Payment:</strong> {order.paymentStatus}
                       </p>
                     </div>
                   </div>
@@ -92,6 +99,17 @@ const Orders = () => {
               </div>
             </div>
           ))}
+          {nextCursor && (
+            <div className="col-12 text-center">
+              <button
+                className="btn btn-outline-primary"
+                onClick={loadMore}
+                disabled={loadingMore}
+              >
+                {loadingMore ? "Loading..." : "Load more orders"}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
@@ -172,7 +172,7 @@ const ProductDetail = () => {
                 src={
                   product.images[selectedImage] &&
                   product.images[selectedImage].startsWith("/uploads/")
-                    ? `http://localhost:8080/api${product.images[selectedImage]}`
+                    ? `http://localhost:8080/api${product.images[selectedImage]}?w=1280`
                     : product.images[selectedImage]
                 }
                 alt={product.name}
@@ -188,7 +188,7 @@ const ProductDetail = () => {
                       <img
                         src={
                           image && image.startsWith("/uploads/")
-                            ? `http://localhost:8080/api${image}`
+                            ? `http://localhost:8080/api${image}?w=320`
                             : image
                         }
                         alt={`${product.name} ${index + 1}`}
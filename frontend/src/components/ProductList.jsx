@@ -335,7 +335,7 @@ const ProductList = () => {
                           src={
                             product.mainImage &&
                             product.mainImage.startsWith("/uploads/")
-                              ? `http://localhost:8080/api${product.mainImage}`
+                              ? `http://localhost:8080/api${product.mainImage}?w=640`
                               : product.mainImage
                           }
                           alt={product.name}
@@ -534,7 +534,7 @@ const AdminInventory = () => {
                       <td>
                         <div className="d-flex align-items-center">
                           <img
-                            src={`http://localhost:8080/api${item.mainImage || item.images?.[0] || ''}`}
+                            src={`http://localhost:8080/api${item.mainImage || item.images?.[0] || ''}?w=320`}
                             alt={item.name}
                             className="rounded me-3"
                             style={{
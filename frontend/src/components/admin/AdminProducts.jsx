@@ -84,7 +84,7 @@ const AdminProducts = () => {
                     <tr key={product.id}>
                       <td>
                         <img
-                          src={`http://localhost:8080/api${product.mainImage || product.images[0]}`}
+                          src={`http://localhost:8080/api${product.mainImage || product.images[0]}?w=320`}
                           alt={product.name}
                           style={{
                             width: "50px",
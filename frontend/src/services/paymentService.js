@@ -13,12 +13,33 @@ class PaymentService {
       console.log("Initializing payment with data:", orderData);
       console.log("Razorpay Key ID:", this.razorpayKeyId);
 
-      // Create order in backend
-      const orderResponse = await api.post("/orders", orderData);
+      // Create order in backend; a double click or retry before the response
+      // arrives reuses the key and gets the same order back
+      if (!this.checkoutKey) {
+        this.checkoutKey = crypto.randomUUID();
+      }
+      let orderResponse;
+      try {
+        orderResponse = await api.post("/orders", orderData, {
+          headers: { "Idempotency-Key": this.checkoutKey },
+        });
+      } catch (error) {
+        // Keep the key only when the request may not have reached the server
+        if (error.response) {
+          this.checkoutKey = null;
+        }
+        throw error;
+      }
+      this.checkoutKey = null;
       const order = orderResponse.data;
 
       console.log("Order created:", order);
 
+      // The Razorpay order is created in the background after checkout
+      if (!order.paymentId) {
+        order.paymentId = await this.waitForPaymentOrder(order.id);
+      }
+
       // Check if Razorpay is available
       if (!window.Razorpay) {
         throw new Error(
@@ -84,11 +105,11 @@ class PaymentService {
   // Verify payment with backend
   async verifyPayment(orderId, paymentId, signature) {
     try {
-      const response = await api.post("/orders/verify-payment", {
-        orderId,
-        paymentId,
-        signature,
-      });
+      const response = await api.post(
+        "/orders/verify-payment",
+        { orderId, paymentId, signature },
+        { headers: { "Idempotency-Key": `verify-${orderId}-${paymentId}` } }
+      );
       return response.data;
     } catch (error) {
       console.error("Payment verification error:", error);
@@ -135,8 +156,8 @@ class PaymentService {
   // Get payment history
   async getPaymentHistory() {
     try {
-      const response = await api.get("/payment-history");
-      return response.data;
+      const response = await api.get("/orders/payment-history");
+      return response.data.content;
     } catch (error) {
       console.error("Error fetching payment history:", error);
       return [];
@@ -159,6 +180,22 @@ class PaymentService {
     }
   }
 
+  // Poll until the backend has created the Razorpay order for our order
+  async waitForPaymentOrder(orderId, timeoutMs = 20000, intervalMs = 500) {
+    const deadline = Date.now() + timeoutMs;
+    while (Date.now() < deadline) {
+      const status = await this.getPaymentStatus(orderId);
+      if (status.ready) {
+        return status.paymentId;
+      }
+      if (status.status === "FAILED") {
+        throw new Error("Could not create payment order");
+      }
+      await new Promise((resolve) => setTimeout(resolve, intervalMs));
+    }
+    throw new Error("Timed out waiting for payment order");
+  }
+
   // Get payment status
   async getPaymentStatus(orderId) {
     try {